@@ -0,0 +1,63 @@
+package project;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * LogSink that never does I/O on the calling thread.
+ * Messages at or above the minimum level go on a BoundedDropQueue and are written by
+ * its single daemon thread. When the queue is full new messages are dropped and
+ * counted instead of blocking the caller.
+ */
+public class AsyncLogSink implements LogSink {
+
+    private final PrintStream out;
+    private volatile LogLevel minLevel;
+
+    private final BoundedDropQueue<String> queue;
+    private final StringBuilder batch = new StringBuilder(); // Used only by the writer thread
+
+    public AsyncLogSink(PrintStream out, LogLevel minLevel) {
+        this(out, minLevel, 8192);
+    }
+
+    public AsyncLogSink(PrintStream out, LogLevel minLevel, int capacity) {
+        this.out = out;
+        this.minLevel = minLevel;
+        this.queue = new BoundedDropQueue<>(capacity, "async-log-writer", this::write);
+    }
+
+    @Override
+    public boolean isEnabled(LogLevel level) {
+        return level != LogLevel.OFF && level.compareTo(minLevel) >= 0;
+    }
+
+    public void setMinLevel(LogLevel minLevel) {
+        this.minLevel = minLevel;
+    }
+
+    @Override
+    public void log(LogLevel level, String message) {
+        if (!isEnabled(level)) return;
+        queue.offer("[" + level + "] " + message);
+    }
+
+    // Blocks until every message accepted so far has been written.
+    public void flush() {
+        queue.flush();
+        out.flush();
+    }
+
+    // Number of messages discarded because the buffer was full.
+    public long getDroppedCount() {
+        return queue.getDroppedCount();
+    }
+
+    private void write(List<String> lines) {
+        for (String line : lines) {
+            batch.append(line).append(System.lineSeparator());
+        }
+        out.print(batch);
+        batch.setLength(0);
+    }
+}
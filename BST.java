@@ -1,12 +1,17 @@
+package project;
 
-public class BST<T> {
+import java.util.Arrays;
+
+public class BST<T> implements EntityStore<T> {
     private BSTNode<T> root;
+    private int size;
 
     public BST() {
         this.root = null;
     }
 
     // ================= INSERT (O(log n)) =================
+    @Override
     public void insert(int key, T data) {
         root = insertRec(root, key, data);
     }
@@ -14,6 +19,7 @@ public class BST<T> {
     private BSTNode<T> insertRec(BSTNode<T> root, int key, T data) {
         // If the tree is empty, return a new node
         if (root == null) {
+            size++;
             return new BSTNode<>(key, data);
         }
 
@@ -30,7 +36,71 @@ public class BST<T> {
         return root;
     }
 
+    // ================= BULK INSERT (O(m log m + touched nodes)) =================
+    // Sorts the batch once, then pushes sorted key ranges down the tree in one pass: each
+    // existing node splits its range between its subtrees, and a range that reaches an
+    // empty subtree becomes a balanced subtree. A run of fresh ascending keys (e.g. new
+    // order IDs) therefore adds O(log m) levels instead of a chain of m nodes.
+    // If a key repeats within the batch, the last value wins, as with repeated insert().
+    @Override
+    @SuppressWarnings("unchecked")
+    public void insertAll(int[] keys, CustomLinkedList<T> values) {
+        int m = values.size();
+        if (m == 0) return;
+        long[] packed = new long[m]; // Key in the high half, batch position in the low half
+        for (int i = 0; i < m; i++) packed[i] = ((long) keys[i] << 32) | i;
+        Arrays.sort(packed);
+        Object[] byPosition = new Object[m];
+        int i = 0;
+        for (T data : values) byPosition[i++] = data;
+        int[] sortedKeys = new int[m];
+        Object[] sortedData = new Object[m];
+        int n = 0;
+        for (i = 0; i < m; i++) {
+            int key = (int) (packed[i] >> 32);
+            if (i + 1 < m && (int) (packed[i + 1] >> 32) == key) continue; // A later duplicate wins
+            sortedKeys[n] = key;
+            sortedData[n++] = byPosition[(int) packed[i]];
+        }
+        root = insertRange(root, sortedKeys, (T[]) sortedData, 0, n);
+    }
+
+    private BSTNode<T> insertRange(BSTNode<T> root, int[] keys, T[] data, int lo, int hi) {
+        if (lo >= hi) return root;
+        if (root == null) return buildBalanced(keys, data, lo, hi);
+        int split = lowerBound(keys, lo, hi, root.key);
+        int from = split;
+        if (split < hi && keys[split] == root.key) {
+            root.data = data[split]; // Key already exists, update data
+            from++;
+        }
+        root.left = insertRange(root.left, keys, data, lo, split);
+        root.right = insertRange(root.right, keys, data, from, hi);
+        return root;
+    }
+
+    private BSTNode<T> buildBalanced(int[] keys, T[] data, int lo, int hi) {
+        if (lo >= hi) return null;
+        int mid = (lo + hi) >>> 1;
+        BSTNode<T> node = new BSTNode<>(keys[mid], data[mid]);
+        size++;
+        node.left = buildBalanced(keys, data, lo, mid);
+        node.right = buildBalanced(keys, data, mid + 1, hi);
+        return node;
+    }
+
+    // First index in [lo, hi) whose key is >= key (hi if none).
+    private static int lowerBound(int[] keys, int lo, int hi, int key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
     // ================= FIND (O(log n)) =================
+    @Override
     public T find(int key) {
         BSTNode<T> res = findRec(root, key);
         if (res != null) {
@@ -50,9 +120,11 @@ public class BST<T> {
     }
 
     // ================= DELETE =================
+    @Override
     public boolean delete(int key) {
         if (find(key) == null) return false;
         root = deleteRec(root, key);
+        size--;
         return true;
     }
 
@@ -69,8 +141,9 @@ public class BST<T> {
             if (root.right == null) return root.left;
 
             // Node with two children: Get the inorder successor (smallest in the right subtree)
-            root.key = minValue(root.right);
-            root.data = find(root.key); // Update data to match the moved key
+            BSTNode<T> successor = minNode(root.right);
+            root.key = successor.key;
+            root.data = successor.data; // Move the successor's data along with its key
 
             // Delete the inorder successor
             root.right = deleteRec(root.right, root.key);
@@ -78,17 +151,41 @@ public class BST<T> {
         return root;
     }
 
-    private int minValue(BSTNode<T> root) {
-        int minv = root.key;
+    private BSTNode<T> minNode(BSTNode<T> root) {
         while (root.left != null) {
-            minv = root.left.key;
             root = root.left;
         }
-        return minv;
+        return root;
+    }
+
+    // ================= SIZE / HEIGHT =================
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Number of levels (0 for an empty tree). Iterative level-order walk,
+    // so it also works on degenerate trees built from sorted keys.
+    public int height() {
+        if (root == null) return 0;
+        CustomLinkedList<BSTNode<T>> level = new CustomLinkedList<>();
+        level.add(root);
+        int height = 0;
+        while (!level.isEmpty()) {
+            height++;
+            CustomLinkedList<BSTNode<T>> next = new CustomLinkedList<>();
+            for (BSTNode<T> node : level) {
+                if (node.left != null) next.add(node.left);
+                if (node.right != null) next.add(node.right);
+            }
+            level = next;
+        }
+        return height;
     }
 
     // ================= TRAVERSAL (To List) =================
     // Returns all elements in sorted order (In-Order Traversal)
+    @Override
     public CustomLinkedList<T> getAll() {
         CustomLinkedList<T> list = new CustomLinkedList<>();
         inOrderRec(root, list);
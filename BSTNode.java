@@ -1,3 +1,5 @@
+package project;
+
 public class BSTNode<T> {
 
     public int key;
@@ -0,0 +1,213 @@
+package project;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Headless runner for ECommerceDemo: executes a script of commands, one per line,
+ * against an ECommerceSystem and prints each command's result and timing.
+ * Blank lines and lines starting with '#' are ignored; arguments containing spaces
+ * can be wrapped in double quotes.
+ *
+ * Commands:
+ *   load                                   load all four CSVs from the data directory
+ *   save                                   save all four CSVs to the data directory
+ *   add-product <id> <name> <price> <stock>
+ *   register-customer <id> <name> <email>
+ *   place-order <orderId> <customerId> <date> <productId[:qty]>...
+ *   cancel-order <orderId>
+ *   update-status <orderId> <status>
+ *   add-review <productId> <customerId> <rating> <comment>
+ *   update-product <id> <name> <price> <stock>
+ *   find-product|find-customer|find-order <id>
+ *   price-range <min> <max>
+ *   orders-between <startDate> <endDate>
+ *   orders-by-status <status>
+ *   recent-orders <customerId> <limit>
+ *   out-of-stock | low-stock | top3 | customers-by-name
+ *   search <query>                         AND search over product names and review comments
+ *   reviewers <productId>
+ *   reviews-by-customer <customerId>
+ *   common-high-rated <customerId1> <customerId2>
+ *   analytics [<startDate> <endDate>]      revenue and basket summary over orders
+ *   bought-together <productId> <n>        products most often ordered with productId
+ *   metrics                                print the metrics snapshot
+ */
+public class BatchRunner {
+
+    private final ECommerceSystem system;
+    private final File dataDir;
+    private final PrintStream out;
+
+    public BatchRunner(ECommerceSystem system, File dataDir, PrintStream out) {
+        this.system = system;
+        this.dataDir = dataDir;
+        this.out = out;
+    }
+
+    // Runs every command in the script; returns the number of commands that failed.
+    public int run(BufferedReader script) throws IOException {
+        int executed = 0;
+        int failed = 0;
+        long start = System.nanoTime();
+        String line;
+        while ((line = script.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            executed++;
+            if (!execute(line)) failed++;
+        }
+        out.println("Batch finished: " + executed + " commands, " + failed + " failed, "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        return failed;
+    }
+
+    // Executes one command line; returns false if it failed or was not understood.
+    public boolean execute(String line) {
+        long start = System.nanoTime();
+        String result = evaluate(line);
+        boolean ok = !isFailure(result);
+        out.printf("[%s] %s (%.3f ms) -> %s%n", ok ? "ok" : "FAIL", line,
+                (System.nanoTime() - start) / 1e6, result);
+        return ok;
+    }
+
+    /**
+     * Executes one command line and returns its result text without printing it; failures
+     * start with "failed" or "error:" (see isFailure). Safe to call from several threads.
+     */
+    public String evaluate(String line) {
+        try {
+            return dispatch(tokenize(line));
+        } catch (RuntimeException e) {
+            return "error: " + e;
+        }
+    }
+
+    public static boolean isFailure(String result) {
+        return result.startsWith("failed") || result.startsWith("error:");
+    }
+
+    private String dispatch(String[] a) {
+        switch (a[0]) {
+            case "load": {
+                LoadReport report = system.loadAllFromCSV(file("products.csv"), file("customers.csv"),
+                        file("orders.csv"), file("reviews.csv"));
+                return (report.isSuccessful() ? "" : "failed: ") + report;
+            }
+            case "save": {
+                // Non-short-circuit: a failed file does not stop the others from being written
+                boolean saved = system.saveProductsToCSV(file("products.csv"))
+                        & system.saveCustomersToCSV(file("customers.csv"))
+                        & system.saveOrdersToCSV(file("orders.csv"))
+                        & system.saveReviewsToCSV(file("reviews.csv"));
+                return saved ? "saved to " + dataDir : "failed: could not save every file to " + dataDir;
+            }
+            case "add-product":
+                system.addProduct(new Product(intArg(a, 1), a[2], Double.parseDouble(a[3]), intArg(a, 4)));
+                return "added";
+            case "register-customer":
+                system.registerCustomer(new Customer(intArg(a, 1), a[2], a[3]));
+                return "registered";
+            case "place-order": {
+                Order order = new Order(intArg(a, 1), intArg(a, 2), 0.0, a[3], "Pending");
+                for (int i = 4; i < a.length; i++) {
+                    String[] parts = a[i].split(":");
+                    order.addProduct(Integer.parseInt(parts[0]), parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+                }
+                return status(system.placeOrder(order)) + " total=" + order.getTotalPrice();
+            }
+            case "cancel-order":
+                return status(system.cancelOrder(intArg(a, 1)));
+            case "update-status":
+                return status(system.updateOrderStatus(intArg(a, 1), a[2]));
+            case "add-review":
+                return status(system.addReview(intArg(a, 1), intArg(a, 2), intArg(a, 3), a[4]));
+            case "update-product":
+                return status(system.updateProduct(intArg(a, 1), a[2], Double.parseDouble(a[3]), intArg(a, 4)));
+            case "find-product":
+                return String.valueOf(system.findProductById(intArg(a, 1)));
+            case "find-customer":
+                return String.valueOf(system.findCustomerById(intArg(a, 1)));
+            case "find-order":
+                return String.valueOf(system.findOrderById(intArg(a, 1)));
+            case "price-range":
+                return count(system.getProductsInPriceRange(Double.parseDouble(a[1]), Double.parseDouble(a[2])));
+            case "orders-between":
+                return count(system.getOrdersBetweenDates(a[1], a[2]));
+            case "recent-orders":
+                return count(system.getRecentOrders(intArg(a, 1), 0, intArg(a, 2)));
+            case "orders-by-status":
+                return count(system.getOrdersByStatus(a[1]));
+            case "out-of-stock":
+                return count(system.getOutOfStockProducts());
+            case "low-stock":
+                return count(system.getLowStockProducts());
+            case "top3":
+                return count(system.getTop3ProductsByRating());
+            case "customers-by-name":
+                return count(system.getCustomersSortedByName());
+            case "search":
+                return count(system.searchProducts(a[1], 10));
+            case "reviewers":
+                return count(system.getCustomersWhoReviewedProduct(intArg(a, 1)));
+            case "reviews-by-customer":
+                return count(system.getReviewsByCustomer(intArg(a, 1)));
+            case "common-high-rated":
+                return count(system.getCommonHighRatedProducts(intArg(a, 1), intArg(a, 2)));
+            case "analytics":
+                return String.valueOf(a.length > 2 ? system.getOrderAnalytics(a[1], a[2]) : system.getOrderAnalytics());
+            case "bought-together":
+                return count(system.getFrequentlyBoughtTogether(intArg(a, 1), intArg(a, 2)));
+            case "metrics":
+                return System.lineSeparator() + system.getMetricsSnapshot();
+            default:
+                return "failed: unknown command '" + a[0] + "'";
+        }
+    }
+
+    private String file(String name) {
+        return new File(dataDir, name).getPath();
+    }
+
+    private static int intArg(String[] a, int index) {
+        return Integer.parseInt(a[index]);
+    }
+
+    private static String status(boolean success) {
+        return success ? "success" : "failed";
+    }
+
+    private static String count(CustomLinkedList<?> list) {
+        return list.size() + " result(s)";
+    }
+
+    // Splits on whitespace, keeping double-quoted sections together.
+    static String[] tokenize(String line) {
+        CustomLinkedList<String> tokens = new CustomLinkedList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        boolean hasToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                inQuotes = !inQuotes;
+                hasToken = true;
+            } else if (Character.isWhitespace(c) && !inQuotes) {
+                if (hasToken) tokens.add(current.toString());
+                current.setLength(0);
+                hasToken = false;
+            } else {
+                current.append(c);
+                hasToken = true;
+            }
+        }
+        if (hasToken) tokens.add(current.toString());
+        String[] arr = new String[tokens.size()];
+        int n = 0;
+        for (String t : tokens) arr[n++] = t;
+        return arr;
+    }
+}
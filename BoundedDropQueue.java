@@ -0,0 +1,115 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-size queue drained by a single daemon thread (started on first offer).
+ * offer() never blocks: when the consumer falls behind and the queue is full, new items
+ * are dropped and counted instead of stalling the caller. The consumer takes everything
+ * queued in one go and hands it to the handler outside the lock.
+ */
+public class BoundedDropQueue<T> {
+
+    // Ring buffer: head = next item to hand over, tail = next free slot
+    private final Object[] buffer;
+    private long head;
+    private long tail;
+    private long dropped;
+    private boolean draining;
+    private Thread drainer;
+    private final String threadName;
+    private final Consumer<List<T>> handler;
+    private final Object lock = new Object();
+
+    public BoundedDropQueue(int capacity, String threadName, Consumer<List<T>> handler) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+        this.buffer = new Object[capacity];
+        this.threadName = threadName;
+        this.handler = handler;
+    }
+
+    // Queues item for the handler; returns false if it was dropped because the queue is full.
+    public boolean offer(T item) {
+        synchronized (lock) {
+            if (tail - head == buffer.length) {
+                dropped++; // Full: drop rather than stall the operation
+                return false;
+            }
+            buffer[(int) (tail++ % buffer.length)] = item;
+            if (drainer == null) startDrainer();
+            lock.notifyAll();
+            return true;
+        }
+    }
+
+    // Blocks until every item accepted so far has been handled.
+    public void flush() {
+        synchronized (lock) {
+            while (head != tail || draining) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Items accepted but not yet handled.
+    public int size() {
+        synchronized (lock) {
+            return (int) (tail - head);
+        }
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    // Number of items discarded because the queue was full.
+    public long getDroppedCount() {
+        synchronized (lock) {
+            return dropped;
+        }
+    }
+
+    private void startDrainer() {
+        drainer = new Thread(this::drainLoop, threadName);
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @SuppressWarnings("unchecked") // Only offer() fills the buffer, always with a T
+    private void drainLoop() {
+        List<T> batch = new ArrayList<>();
+        while (true) {
+            synchronized (lock) {
+                draining = false;
+                lock.notifyAll(); // Wake flush() waiters
+                while (head == tail) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                // Take everything queued in one go, then hand it over outside the lock
+                while (head != tail) {
+                    int slot = (int) (head++ % buffer.length);
+                    batch.add((T) buffer[slot]);
+                    buffer[slot] = null;
+                }
+                draining = true;
+            }
+            try {
+                handler.accept(batch);
+            } catch (RuntimeException e) {
+                // A throwing handler loses this batch, not the drain thread
+            }
+            batch.clear();
+        }
+    }
+}
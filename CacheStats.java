@@ -0,0 +1,39 @@
+package project;
+
+/**
+ * Point-in-time counters of a DiskBackedStore's entity cache.
+ * A hit is a lookup served from memory; a miss had to read the data file (or found nothing).
+ */
+public class CacheStats {
+
+    private final int capacity;
+    private final int cached;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    public CacheStats(int capacity, int cached, long hits, long misses, long evictions) {
+        this.capacity = capacity;
+        this.cached = cached;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public int getCapacity() { return capacity; }
+    public int getCached() { return cached; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cache %d/%d hits=%d misses=%d hitRate=%.1f%% evictions=%d",
+                cached, capacity, hits, misses, getHitRate() * 100, evictions);
+    }
+}
@@ -0,0 +1,94 @@
+package project;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, non-blocking fan-out of ChangeEvents to ChangeListeners.
+ * publish() puts the event on a BoundedDropQueue and returns at once; the queue's single
+ * daemon thread delivers events to every listener in sequence order.
+ *
+ * Backpressure: when listeners fall behind and the buffer is full, new events are dropped
+ * and counted instead of stalling the mutating thread. Dropped events still take a sequence
+ * number, so consumers see the gap; getPendingCount() lets producers throttle before that.
+ * A listener that throws is counted and skipped for that event only.
+ */
+public class ChangeDispatcher {
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private final CopyOnWriteArrayList<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final BoundedDropQueue<ChangeEvent> queue;
+    private long nextSequence = 1;
+    private final Object sequenceLock = new Object();
+    private final AtomicLong failures = new AtomicLong();
+
+    public ChangeDispatcher() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ChangeDispatcher(int capacity) {
+        this.queue = new BoundedDropQueue<>(capacity, "change-dispatcher", this::deliver);
+    }
+
+    public void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Cheap check so callers can skip building events nobody will receive.
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    // Queues event for delivery; returns false if it was dropped because the buffer is full.
+    public boolean publish(ChangeEvent event) {
+        synchronized (sequenceLock) { // Sequence order is queue order
+            event.sequence = nextSequence++;
+            return queue.offer(event);
+        }
+    }
+
+    // Blocks until every event accepted so far has been delivered.
+    public void flush() {
+        queue.flush();
+    }
+
+    // Events accepted but not yet delivered.
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    public int getCapacity() {
+        return queue.capacity();
+    }
+
+    // Number of events discarded because the buffer was full.
+    public long getDroppedCount() {
+        return queue.getDroppedCount();
+    }
+
+    // Number of listener calls that threw.
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    private void deliver(List<ChangeEvent> batch) {
+        int failed = 0;
+        for (ChangeEvent event : batch) {
+            for (ChangeListener l : listeners) {
+                try {
+                    l.onChange(event);
+                } catch (RuntimeException e) {
+                    failed++;
+                }
+            }
+        }
+        if (failed > 0) failures.addAndGet(failed);
+    }
+}
@@ -0,0 +1,129 @@
+package project;
+
+/**
+ * One entity mutation published by ECommerceSystem to its ChangeListeners.
+ *
+ * Which fields are set depends on the type:
+ * - PRODUCT_PRICE_CHANGED / PRODUCT_STOCK_CHANGED: entityId = product, old/new value.
+ * - ORDER_PLACED: entityId = order, ownerId = customer, newValue = order total.
+ * - ORDER_STATUS_CHANGED: entityId = order, ownerId = customer, old/new status.
+ * - ORDER_CANCELLED: entityId = order, ownerId = customer.
+ * - REVIEW_ADDED / REVIEW_EDITED: entityId = review, ownerId = product, old/new rating.
+ *
+ * Sequence numbers are assigned in publish order and also consumed by events the
+ * dispatcher had to drop, so a gap tells a consumer it missed changes and should resync.
+ */
+public final class ChangeEvent {
+
+    public enum Type {
+        PRODUCT_PRICE_CHANGED,
+        PRODUCT_STOCK_CHANGED,
+        ORDER_PLACED,
+        ORDER_STATUS_CHANGED,
+        ORDER_CANCELLED,
+        REVIEW_ADDED,
+        REVIEW_EDITED
+    }
+
+    private final Type type;
+    private final int entityId;
+    private final int ownerId;
+    private final double oldValue;
+    private final double newValue;
+    private final String oldStatus;
+    private final String newStatus;
+    private final long timestamp = System.currentTimeMillis();
+    long sequence; // Set by ChangeDispatcher.publish under its lock
+
+    private ChangeEvent(Type type, int entityId, int ownerId, double oldValue, double newValue,
+                        String oldStatus, String newStatus) {
+        this.type = type;
+        this.entityId = entityId;
+        this.ownerId = ownerId;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+    }
+
+    public static ChangeEvent priceChanged(int productId, double oldPrice, double newPrice) {
+        return new ChangeEvent(Type.PRODUCT_PRICE_CHANGED, productId, 0, oldPrice, newPrice, null, null);
+    }
+
+    public static ChangeEvent stockChanged(int productId, int oldStock, int newStock) {
+        return new ChangeEvent(Type.PRODUCT_STOCK_CHANGED, productId, 0, oldStock, newStock, null, null);
+    }
+
+    public static ChangeEvent orderPlaced(Order order) {
+        return new ChangeEvent(Type.ORDER_PLACED, order.getOrderId(), order.getCustomerId(),
+                0.0, order.getTotalPrice(), null, order.getStatus());
+    }
+
+    public static ChangeEvent orderStatusChanged(Order order, String oldStatus, String newStatus) {
+        return new ChangeEvent(Type.ORDER_STATUS_CHANGED, order.getOrderId(), order.getCustomerId(),
+                0.0, 0.0, oldStatus, newStatus);
+    }
+
+    public static ChangeEvent orderCancelled(Order order) {
+        return new ChangeEvent(Type.ORDER_CANCELLED, order.getOrderId(), order.getCustomerId(),
+                0.0, 0.0, null, order.getStatus());
+    }
+
+    public static ChangeEvent reviewAdded(Review review) {
+        return new ChangeEvent(Type.REVIEW_ADDED, review.getReviewId(), review.getProductId(),
+                0, review.getRating(), null, null);
+    }
+
+    public static ChangeEvent reviewEdited(Review review, int oldRating) {
+        return new ChangeEvent(Type.REVIEW_EDITED, review.getReviewId(), review.getProductId(),
+                oldRating, review.getRating(), null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public int getOwnerId() {
+        return ownerId;
+    }
+
+    public double getOldValue() {
+        return oldValue;
+    }
+
+    public double getNewValue() {
+        return newValue;
+    }
+
+    public String getOldStatus() {
+        return oldStatus;
+    }
+
+    public String getNewStatus() {
+        return newStatus;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" +
+                "seq=" + sequence +
+                ", type=" + type +
+                ", entityId=" + entityId +
+                ", ownerId=" + ownerId +
+                ", old=" + (oldStatus != null ? oldStatus : String.valueOf(oldValue)) +
+                ", new=" + (newStatus != null ? newStatus : String.valueOf(newValue)) +
+                '}';
+    }
+}
@@ -0,0 +1,7 @@
+package project;
+
+// Receives ChangeEvents on the ChangeDispatcher's delivery thread, in sequence order.
+public interface ChangeListener {
+
+    void onChange(ChangeEvent event);
+}
@@ -0,0 +1,138 @@
+package project;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "Frequently bought together" counts built from order co-occurrence.
+ *
+ * Each product keeps at most capacity partner counters in two primitive arrays (partner
+ * IDs and counts) sorted by count, highest first, so top-N is a prefix copy (O(N)).
+ * When a product already tracks capacity partners, a new partner replaces the weakest
+ * one and inherits its count plus one (the Space-Saving scheme): memory stays bounded
+ * at capacity counters per product, frequent partners are never lost, and a count can
+ * overestimate by at most the count it replaced.
+ *
+ * Each order contributes every pair of its distinct products once (the first maxLines
+ * distinct products of very large orders). Counters synchronize per product, so
+ * concurrent orders for different products do not contend.
+ */
+public class CoPurchaseIndex {
+
+    public static final int DEFAULT_CAPACITY = 32;
+    public static final int DEFAULT_MAX_LINES = 32;
+
+    private final int capacity;
+    private final int maxLines;
+    private final ConcurrentHashMap<Integer, Partners> byProduct = new ConcurrentHashMap<>();
+
+    private static final class Partners {
+        int[] ids = new int[4];
+        int[] counts = new int[4];
+        int size;
+    }
+
+    public CoPurchaseIndex() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_LINES);
+    }
+
+    public CoPurchaseIndex(int capacity, int maxLines) {
+        if (capacity < 1 || maxLines < 2) throw new IllegalArgumentException("capacity >= 1 and maxLines >= 2 required");
+        this.capacity = capacity;
+        this.maxLines = maxLines;
+    }
+
+    // Counts every pair of distinct products in order.
+    public void record(Order order) {
+        OrderLines lines = order.getLines();
+        int[] ids;
+        int n = 0;
+        if (lines != null) { // Already one line per product
+            ids = new int[Math.min(lines.size(), maxLines)];
+            for (; n < ids.length; n++) ids[n] = lines.getProductId(n);
+        } else {
+            CustomLinkedList<Integer> units = order.getProductIds();
+            ids = new int[Math.min(units.size(), maxLines)];
+            for (int pid : units) {
+                if (contains(ids, n, pid)) continue;
+                if (n == ids.length) break;
+                ids[n++] = pid;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            Partners p = byProduct.computeIfAbsent(ids[i], k -> new Partners());
+            synchronized (p) {
+                for (int j = 0; j < n; j++) {
+                    if (j != i) increment(p, ids[j]);
+                }
+            }
+        }
+    }
+
+    private static boolean contains(int[] ids, int n, int id) {
+        for (int i = 0; i < n; i++) {
+            if (ids[i] == id) return true;
+        }
+        return false;
+    }
+
+    // Caller holds p's lock. Keeps counts sorted descending.
+    private void increment(Partners p, int partner) {
+        int at = -1;
+        for (int i = 0; i < p.size; i++) {
+            if (p.ids[i] == partner) {
+                at = i;
+                break;
+            }
+        }
+        if (at < 0) {
+            if (p.size < capacity) {
+                if (p.size == p.ids.length) {
+                    int grown = Math.min(capacity, p.size * 2);
+                    p.ids = Arrays.copyOf(p.ids, grown);
+                    p.counts = Arrays.copyOf(p.counts, grown);
+                }
+                at = p.size++;
+                p.ids[at] = partner;
+                p.counts[at] = 0;
+            } else {
+                at = p.size - 1; // Weakest counter: the new partner takes it over
+                p.ids[at] = partner;
+            }
+        }
+        int count = ++p.counts[at];
+        // Bubble up past entries with a lower count
+        while (at > 0 && p.counts[at - 1] < count) {
+            p.ids[at] = p.ids[at - 1];
+            p.counts[at] = p.counts[at - 1];
+            at--;
+        }
+        p.ids[at] = partner;
+        p.counts[at] = count;
+    }
+
+    // Up to n partner IDs of productId, most frequent first; O(n).
+    public int[] top(int productId, int n) {
+        Partners p = byProduct.get(productId);
+        if (p == null || n <= 0) return new int[0];
+        synchronized (p) {
+            return Arrays.copyOf(p.ids, Math.min(n, p.size));
+        }
+    }
+
+    // Co-purchase count of the pair as seen from productId (0 if not tracked).
+    public int count(int productId, int partnerId) {
+        Partners p = byProduct.get(productId);
+        if (p == null) return 0;
+        synchronized (p) {
+            for (int i = 0; i < p.size; i++) {
+                if (p.ids[i] == partnerId) return p.counts[i];
+            }
+            return 0;
+        }
+    }
+
+    public int productCount() {
+        return byProduct.size();
+    }
+}
@@ -0,0 +1,81 @@
+package project;
+
+/**
+ * Product whose name, price and stock live in a ProductColumns row instead of
+ * object fields. Reviews and ratings stay on the object as usual; like any Product
+ * it allocates its review lists only once it has reviews, so a view without reviews
+ * is a single small object.
+ */
+public class ColumnarProduct extends Product {
+
+    private final ProductColumns columns;
+    private final int row;
+
+    ColumnarProduct(ProductColumns columns, int row, int productId) {
+        super(productId, null, 0.0, 0);
+        this.columns = columns;
+        this.row = row;
+    }
+
+    ProductColumns columns() {
+        return columns;
+    }
+
+    int row() {
+        return row;
+    }
+
+    @Override
+    public String getName() {
+        return columns.nameAt(row);
+    }
+
+    @Override
+    public double getPrice() {
+        return columns.priceAt(row);
+    }
+
+    @Override
+    public int getStock() {
+        return columns.stockAt(row);
+    }
+
+    @Override
+    public boolean isOutOfStock() {
+        return columns.stockAt(row) == 0;
+    }
+
+    @Override
+    public void setName(String name) {
+        columns.setName(row, name);
+    }
+
+    @Override
+    public void setPrice(double price) {
+        columns.setPrice(row, price);
+    }
+
+    @Override
+    public void setStock(int stock) {
+        stockChanged(columns.getAndSetStock(row, stock), stock);
+    }
+
+    @Override
+    public void updateStock(int newStock) {
+        stockChanged(columns.getAndSetStock(row, newStock), newStock);
+    }
+
+    @Override
+    public boolean reduceStock(int quantity) {
+        int previous = columns.reduceStock(row, quantity);
+        if (previous < 0) return false;
+        stockChanged(previous, previous - quantity);
+        return true;
+    }
+
+    @Override
+    public void releaseStock(int quantity) {
+        int previous = columns.getAndAddStock(row, quantity);
+        stockChanged(previous, previous + quantity);
+    }
+}
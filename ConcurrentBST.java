@@ -0,0 +1,87 @@
+package project;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe BST for ECommerceSystem's concurrent mode.
+ * Lookups and traversals share a read lock so they run in parallel;
+ * insert/delete take the write lock for this tree only, so writers on
+ * different trees (products, customers, orders) never block each other.
+ * Every operation is linearizable at the point its lock is held.
+ */
+public class ConcurrentBST<T> extends BST<T> {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void insert(int key, T data) {
+        lock.writeLock().lock();
+        try {
+            super.insert(key, data);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The whole batch is applied under one write-lock acquisition.
+    @Override
+    public void insertAll(int[] keys, CustomLinkedList<T> values) {
+        lock.writeLock().lock();
+        try {
+            super.insertAll(keys, values);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public T find(int key) {
+        lock.readLock().lock();
+        try {
+            return super.find(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(int key) {
+        lock.writeLock().lock();
+        try {
+            return super.delete(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return super.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int height() {
+        lock.readLock().lock();
+        try {
+            return super.height();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Snapshot of all elements in key order, consistent as of one instant.
+    @Override
+    public CustomLinkedList<T> getAll() {
+        lock.readLock().lock();
+        try {
+            return super.getAll();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
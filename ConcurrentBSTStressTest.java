@@ -0,0 +1,226 @@
+package project;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stress test for ConcurrentBST: checks that lookups are linearizable while writers update
+ * and restructure the tree.
+ *
+ * Even keys are "stable": each belongs to one writer, which stores ever-increasing versions
+ * under it and never deletes it. Odd keys are churned (inserted and deleted at random) so
+ * deletes keep moving successor nodes around the stable ones. For every stable-key lookup
+ * a reader checks:
+ *   - the key is present and the value belongs to that key;
+ *   - the version is at least the last one whose insert had returned before the lookup
+ *     started (no stale reads) and at most the last one whose insert had begun by the time
+ *     the lookup returned (no values from the future);
+ *   - versions seen by the same reader never go backwards.
+ * Snapshot readers also check that getAll() is in ascending key order and holds every
+ * stable key. At the end the tree's size and contents are compared with the writers' record.
+ *
+ * Usage: java project.ConcurrentBSTStressTest [--readers <n>] [--writers <n>] [--keys <n>] [--seconds <s>]
+ * Exits with status 1 if any check failed.
+ */
+public class ConcurrentBSTStressTest {
+
+    private final ConcurrentBST<Long> tree = new ConcurrentBST<>();
+    private final int readers;
+    private final int writers;
+    private final int stableKeys;
+    private final AtomicLongArray started;   // Per stable key: last version a writer began inserting
+    private final AtomicLongArray completed; // Per stable key: last version whose insert returned
+    private final AtomicLongArray churned;   // Per churn key: 1 while present (written only by its owning writer)
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong snapshots = new AtomicLong();
+    private final AtomicLong violations = new AtomicLong();
+    private volatile String firstViolation;
+    private volatile boolean running = true;
+
+    public ConcurrentBSTStressTest(int readers, int writers, int stableKeys) {
+        if (readers < 1 || writers < 1 || stableKeys < writers) {
+            throw new IllegalArgumentException("need readers >= 1, writers >= 1 and keys >= writers");
+        }
+        this.readers = readers;
+        this.writers = writers;
+        this.stableKeys = stableKeys;
+        this.started = new AtomicLongArray(stableKeys);
+        this.completed = new AtomicLongArray(stableKeys);
+        this.churned = new AtomicLongArray(stableKeys);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int readers = Math.max(4, cores), writers = Math.max(2, cores / 2), keys = 256, seconds = 5;
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 == args.length) usage(args[i]);
+            switch (args[i]) {
+                case "--readers": readers = Integer.parseInt(args[++i]); break;
+                case "--writers": writers = Integer.parseInt(args[++i]); break;
+                case "--keys": keys = Integer.parseInt(args[++i]); break;
+                case "--seconds": seconds = Integer.parseInt(args[++i]); break;
+                default: usage(args[i]);
+            }
+        }
+        ConcurrentBSTStressTest test = new ConcurrentBSTStressTest(readers, writers, keys);
+        boolean passed = test.run(seconds * 1000L);
+        System.out.println(test.report(passed));
+        if (!passed) System.exit(1);
+    }
+
+    private static void usage(String arg) {
+        System.out.println("Unknown or incomplete argument: " + arg);
+        System.out.println("Usage: ConcurrentBSTStressTest [--readers <n>] [--writers <n>] [--keys <n>] [--seconds <s>]");
+        System.exit(2);
+    }
+
+    // Runs readers and writers for the given time, then verifies the final tree; true if no check failed.
+    public boolean run(long millis) throws InterruptedException {
+        for (int k = 0; k < stableKeys; k++) { // Version 1 of every stable key, before anyone reads
+            tree.insert(stableKey(k), encode(stableKey(k), 1));
+            started.set(k, 1);
+            completed.set(k, 1);
+        }
+        Thread[] threads = new Thread[readers + writers];
+        for (int i = 0; i < writers; i++) {
+            int writer = i;
+            threads[i] = new Thread(() -> runWriter(writer), "bst-writer-" + i);
+        }
+        for (int i = 0; i < readers; i++) {
+            int reader = i;
+            // One reader in four takes whole-tree snapshots; the rest do point lookups
+            threads[writers + i] = new Thread(() -> { if (reader % 4 == 3) runSnapshots(); else runLookups(); },
+                    "bst-reader-" + i);
+        }
+        for (Thread t : threads) t.start();
+        Thread.sleep(millis);
+        running = false;
+        for (Thread t : threads) t.join();
+        verifyFinalState();
+        return violations.get() == 0;
+    }
+
+    public String report(boolean passed) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(passed ? "PASS" : "FAIL").append(": ").append(readers).append(" readers, ").append(writers)
+                .append(" writers, ").append(stableKeys).append(" stable keys; ").append(lookups.get())
+                .append(" lookups, ").append(snapshots.get()).append(" snapshots, ").append(violations.get())
+                .append(" violations");
+        if (!passed) sb.append(System.lineSeparator()).append("First: ").append(firstViolation);
+        return sb.toString();
+    }
+
+    // ================= WORKERS ================= //
+
+    // Writer w owns stable keys k with k % writers == w, and the churn key next to each.
+    private void runWriter(int writer) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int owned = (stableKeys - writer + writers - 1) / writers;
+        while (running) {
+            int k = writer + random.nextInt(owned) * writers;
+            if (random.nextBoolean()) {
+                long version = started.get(k) + 1; // Only this writer advances key k
+                started.set(k, version);
+                tree.insert(stableKey(k), encode(stableKey(k), version));
+                completed.set(k, version);
+            } else if (churned.get(k) == 0) {
+                tree.insert(churnKey(k), encode(churnKey(k), 0));
+                churned.set(k, 1);
+            } else {
+                if (!tree.delete(churnKey(k))) fail("delete of present churn key " + churnKey(k) + " returned false");
+                churned.set(k, 0);
+            }
+        }
+    }
+
+    private void runLookups() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] lastSeen = new long[stableKeys];
+        long count = 0;
+        while (running) {
+            int k = random.nextInt(stableKeys);
+            int key = stableKey(k);
+            long lower = completed.get(k);
+            Long value = tree.find(key);
+            long upper = started.get(k);
+            count++;
+            if (value == null) {
+                fail("stable key " + key + " not found");
+                continue;
+            }
+            long version = version(value);
+            if (keyOf(value) != key) {
+                fail("key " + key + " returned the value of key " + keyOf(value));
+            } else if (version < lower) {
+                fail("stale read of key " + key + ": version " + version + " after version " + lower + " completed");
+            } else if (version > upper) {
+                fail("key " + key + " returned version " + version + " before it was written (last started " + upper + ")");
+            } else if (version < lastSeen[k]) {
+                fail("key " + key + " went back from version " + lastSeen[k] + " to " + version);
+            }
+            lastSeen[k] = Math.max(lastSeen[k], version);
+        }
+        lookups.addAndGet(count);
+    }
+
+    private void runSnapshots() {
+        long count = 0;
+        while (running) {
+            int previous = Integer.MIN_VALUE, stable = 0;
+            for (Long value : tree.getAll()) {
+                int key = keyOf(value);
+                if (key <= previous) fail("snapshot out of order: " + key + " after " + previous);
+                if ((key & 1) == 0) stable++;
+                previous = key;
+            }
+            if (stable != stableKeys) fail("snapshot held " + stable + " of " + stableKeys + " stable keys");
+            count++;
+        }
+        snapshots.addAndGet(count);
+    }
+
+    // With all threads stopped, the tree must match the writers' record exactly.
+    private void verifyFinalState() {
+        int expected = stableKeys;
+        for (int k = 0; k < stableKeys; k++) {
+            Long value = tree.find(stableKey(k));
+            if (value == null || version(value) != completed.get(k)) {
+                fail("final value of key " + stableKey(k) + " is " + (value == null ? "missing" : "version " + version(value))
+                        + ", expected version " + completed.get(k));
+            }
+            boolean present = tree.find(churnKey(k)) != null;
+            if (present != (churned.get(k) == 1)) fail("churn key " + churnKey(k) + " present=" + present);
+            if (churned.get(k) == 1) expected++;
+        }
+        if (tree.size() != expected) fail("final size " + tree.size() + ", expected " + expected);
+        if (tree.getAll().size() != expected) fail("final getAll() size " + tree.getAll().size() + ", expected " + expected);
+    }
+
+    private void fail(String message) {
+        if (violations.getAndIncrement() == 0) firstViolation = message;
+    }
+
+    // ================= ENCODING ================= //
+
+    private static int stableKey(int k) {
+        return 2 * k;
+    }
+
+    private static int churnKey(int k) {
+        return 2 * k + 1;
+    }
+
+    // Value = key in the high 32 bits, version in the low 32 bits
+    private static Long encode(int key, long version) {
+        return ((long) key << 32) | version;
+    }
+
+    private static int keyOf(long value) {
+        return (int) (value >>> 32);
+    }
+
+    private static long version(long value) {
+        return value & 0xFFFFFFFFL;
+    }
+}
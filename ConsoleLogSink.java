@@ -0,0 +1,27 @@
+package project;
+
+import java.io.PrintStream;
+
+// Synchronous LogSink that prints "[LEVEL] message" lines at or above a minimum level.
+public class ConsoleLogSink implements LogSink {
+
+    private final PrintStream out;
+    private final LogLevel minLevel;
+
+    public ConsoleLogSink(PrintStream out, LogLevel minLevel) {
+        this.out = out;
+        this.minLevel = minLevel;
+    }
+
+    @Override
+    public boolean isEnabled(LogLevel level) {
+        return level != LogLevel.OFF && level.compareTo(minLevel) >= 0;
+    }
+
+    @Override
+    public void log(LogLevel level, String message) {
+        if (isEnabled(level)) {
+            out.println("[" + level + "] " + message);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package project;
+
+/**
+ * Rate-limited reporting of corrupted CSV lines during a load.
+ * Only the first few lines are logged verbatim; the rest are just counted and
+ * summarised once by finish(), so a dirty file cannot flood the log.
+ */
+public class CorruptionReporter {
+
+    private final LogSink log;
+    private final String entity;
+    private final int sampleLimit;
+    private int count;
+
+    public CorruptionReporter(LogSink log, String entity, int sampleLimit) {
+        this.log = log;
+        this.entity = entity;
+        this.sampleLimit = sampleLimit;
+    }
+
+    public void report(String line) {
+        count++;
+        if (count <= sampleLimit && log.isEnabled(LogLevel.WARN)) {
+            log.log(LogLevel.WARN, "Skipping corrupted " + entity + " line: " + line);
+        }
+    }
+
+    // Logs the total once the load is done, if any lines were suppressed.
+    public void finish() {
+        if (count > sampleLimit && log.isEnabled(LogLevel.WARN)) {
+            log.log(LogLevel.WARN, "Skipped " + count + " corrupted " + entity + " lines ("
+                    + sampleLimit + " shown).");
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
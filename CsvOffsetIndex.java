@@ -0,0 +1,238 @@
+package project;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Byte-offset index over a CSV file whose first two columns are integer keys
+ * (e.g. OrderId,CustomerId or ReviewId,ProductId). Used for lazy loading: the file is
+ * scanned once, keeping only each data row's offset, and rows are read back on demand.
+ *
+ * Both keys map to offsets through sorted packed arrays (key in the high 32 bits, row
+ * number in the low 32), so the index costs about 24 bytes per row and a lookup is a
+ * binary search. Rows sharing an owner key come back in file order.
+ */
+public class CsvOffsetIndex {
+
+    private static final int READ_BUFFER = 1 << 16;
+
+    private final String filename;
+    private final Charset charset = Charset.defaultCharset(); // Same decoding as FileReader
+    private long[] offsets = new long[1024]; // Row number -> byte offset of the line
+    private long[] byId = new long[1024];    // Sorted (column 0 key, row number)
+    private long[] byOwner = new long[1024]; // Sorted (column 1 key, row number)
+    private int rows;
+
+    private CsvOffsetIndex(String filename) {
+        this.filename = filename;
+    }
+
+    /**
+     * Scans filename (skipping the header line) and indexes every row whose two key
+     * columns parse. Other rows are passed to corrupt and counted as rejected; the rest
+     * of each row is only validated when it is read back.
+     */
+    public static CsvOffsetIndex build(String filename, LoadReport report, CorruptionReporter corrupt) throws IOException {
+        CsvOffsetIndex index = new CsvOffsetIndex(filename);
+        try (InputStream in = new FileInputStream(filename)) {
+            byte[] chunk = new byte[READ_BUFFER];
+            byte[] line = new byte[256];
+            int len = 0;
+            long lineStart = 0;
+            long offset = 0;
+            boolean header = true;
+            int n;
+            while (true) {
+                n = in.read(chunk);
+                for (int i = 0; i < n; i++) {
+                    byte b = chunk[i];
+                    if (b != '\n') {
+                        if (len == line.length) line = Arrays.copyOf(line, len * 2);
+                        line[len++] = b;
+                        continue;
+                    }
+                    if (header) header = false;
+                    else index.indexRow(line, len, lineStart, report, corrupt);
+                    len = 0;
+                    lineStart = offset + i + 1;
+                }
+                if (n < 0) break;
+                offset += n;
+            }
+            if (len > 0 && !header) index.indexRow(line, len, lineStart, report, corrupt); // No final newline
+        }
+        index.freeze();
+        return index;
+    }
+
+    private void indexRow(byte[] line, int len, long lineStart, LoadReport report, CorruptionReporter corrupt) {
+        if (len > 0 && line[len - 1] == '\r') len--;
+        if (isBlank(line, len)) return;
+        try {
+            int comma = indexOf(line, (byte) ',', 0, len);
+            if (comma < 0) throw new ArrayIndexOutOfBoundsException("missing key columns");
+            int next = indexOf(line, (byte) ',', comma + 1, len);
+            int id = parseInt(line, 0, comma);
+            int owner = parseInt(line, comma + 1, next < 0 ? len : next);
+            add(id, owner, lineStart);
+            report.recordAccepted();
+        } catch (Exception e) {
+            corrupt.report(new String(line, 0, len, charset));
+            report.recordRejected(e);
+        }
+    }
+
+    private void add(int id, int owner, long offset) {
+        if (rows == offsets.length) {
+            offsets = Arrays.copyOf(offsets, rows * 2);
+            byId = Arrays.copyOf(byId, rows * 2);
+            byOwner = Arrays.copyOf(byOwner, rows * 2);
+        }
+        offsets[rows] = offset;
+        byId[rows] = pack(id, rows);
+        byOwner[rows] = pack(owner, rows);
+        rows++;
+    }
+
+    private void freeze() {
+        offsets = Arrays.copyOf(offsets, rows);
+        byId = Arrays.copyOf(byId, rows);
+        byOwner = Arrays.copyOf(byOwner, rows);
+        Arrays.sort(byId);
+        Arrays.sort(byOwner);
+    }
+
+    private static long pack(int key, int row) {
+        return ((long) key << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    // The same index for a byte-identical file under another name (e.g. a saved file's
+    // temporary copy, renamed into place). Shares the frozen arrays.
+    public CsvOffsetIndex renamed(String newFilename) {
+        CsvOffsetIndex index = new CsvOffsetIndex(newFilename);
+        index.offsets = offsets;
+        index.byId = byId;
+        index.byOwner = byOwner;
+        index.rows = rows;
+        return index;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public int rowCount() {
+        return rows;
+    }
+
+    // Offsets of the rows whose first column is id (normally zero or one).
+    public long[] offsetsForId(int id) {
+        return lookup(byId, id);
+    }
+
+    // Offsets of the rows whose second column is owner, in file order.
+    public long[] offsetsForOwner(int owner) {
+        return lookup(byOwner, owner);
+    }
+
+    private long[] lookup(long[] sorted, int key) {
+        int from = lowerBound(sorted, (long) key << 32);
+        int to = from;
+        while (to < sorted.length && (int) (sorted[to] >> 32) == key) to++;
+        long[] result = new long[to - from];
+        for (int i = from; i < to; i++) {
+            result[i - from] = offsets[(int) sorted[i]];
+        }
+        return result;
+    }
+
+    private static int lowerBound(long[] sorted, long target) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < target) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Reads the lines starting at the given offsets, in the order given, with one
+     * file open for the whole batch.
+     */
+    public String[] readLines(long[] lineOffsets) throws IOException {
+        String[] lines = new String[lineOffsets.length];
+        if (lineOffsets.length == 0) return lines;
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(512);
+            for (int i = 0; i < lineOffsets.length; i++) {
+                buf = readLine(ch, lineOffsets[i], buf);
+                lines[i] = new String(buf.array(), 0, buf.limit(), charset);
+            }
+        }
+        return lines;
+    }
+
+    // Leaves the line (without terminator) in buf[0, limit); grows buf for long lines.
+    private static ByteBuffer readLine(FileChannel ch, long offset, ByteBuffer buf) throws IOException {
+        buf.clear();
+        while (true) {
+            int n = ch.read(buf, offset + buf.position());
+            int end = buf.position();
+            for (int i = end - Math.max(n, 0); i < end; i++) {
+                if (buf.get(i) == '\n') {
+                    end = i;
+                    break;
+                }
+            }
+            if (end < buf.position() || n <= 0) {
+                if (end > 0 && buf.get(end - 1) == '\r') end--;
+                buf.position(0).limit(end);
+                return buf;
+            }
+            if (!buf.hasRemaining()) {
+                ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() * 2);
+                buf.flip();
+                bigger.put(buf);
+                buf = bigger;
+            }
+        }
+    }
+
+    private static boolean isBlank(byte[] line, int len) {
+        for (int i = 0; i < len; i++) {
+            if ((line[i] & 0xFF) > ' ') return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] line, byte c, int from, int len) {
+        for (int i = from; i < len; i++) {
+            if (line[i] == c) return i;
+        }
+        return -1;
+    }
+
+    // Integer.parseInt over ASCII bytes, without building a String.
+    private static int parseInt(byte[] line, int from, int to) {
+        if (from >= to) throw new NumberFormatException("empty key");
+        boolean negative = line[from] == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to) throw new NumberFormatException("bad key");
+        long value = 0;
+        for (; i < to; i++) {
+            int d = line[i] - '0';
+            if (d < 0 || d > 9) throw new NumberFormatException("bad key");
+            value = value * 10 + d;
+            if (value > (long) Integer.MAX_VALUE + 1) throw new NumberFormatException("key out of range");
+        }
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) throw new NumberFormatException("key out of range");
+        return (int) value;
+    }
+}
@@ -1,27 +1,29 @@
 package project;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
-public class CustomLinkedList<T> {
+public class CustomLinkedList<T> implements Iterable<T> {
     
     private Node<T> head;
+    private Node<T> tail;
     private int size;
    
     public CustomLinkedList() {
         this.head = null;
+        this.tail = null;
         this.size = 0;
     }
     
+    // Appends in O(1) using the tail reference.
     public void add(T data) {
         Node<T> newNode = new Node<>(data);
         if (head == null) {
             head = newNode;
         } else {
-            Node<T> current = head;
-            while (current.next != null) {
-                current = current.next;
-            }
-            current.next = newNode;
+            tail.next = newNode;
         }
+        tail = newNode;
         size++;
     }
     
@@ -43,6 +45,7 @@ public class CustomLinkedList<T> {
         
         if (index == 0) {
             head = head.next;
+            if (head == null) tail = null;
             size--;
             return true;
         }
@@ -51,11 +54,30 @@ public class CustomLinkedList<T> {
         for (int i = 0; i < index - 1; i++) {
             current = current.next;
         }
+        if (current.next == tail) tail = current;
         current.next = current.next.next;
         size--;
         return true;
     }
     
+    // Removes the first element that is the same object as data (identity match).
+    public boolean removeItem(T data) {
+        Node<T> prev = null;
+        Node<T> current = head;
+        while (current != null) {
+            if (current.data == data) {
+                if (prev == null) head = current.next;
+                else prev.next = current.next;
+                if (current == tail) tail = prev;
+                size--;
+                return true;
+            }
+            prev = current;
+            current = current.next;
+        }
+        return false;
+    }
+    
     public int size() {
         return size;
     }
@@ -66,6 +88,7 @@ public class CustomLinkedList<T> {
     
     public void clear() {
         head = null;
+        tail = null;
         size = 0;
     }
     
@@ -79,4 +102,25 @@ public class CustomLinkedList<T> {
         }
         return false;
     }
+    
+    // Sequential traversal in O(1) per element (use instead of get(i) loops).
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private Node<T> current = head;
+
+            @Override
+            public boolean hasNext() {
+                return current != null;
+            }
+
+            @Override
+            public T next() {
+                if (current == null) throw new NoSuchElementException();
+                T data = current.data;
+                current = current.next;
+                return data;
+            }
+        };
+    }
 }
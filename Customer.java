@@ -1,28 +1,71 @@
 package project;
 
+import java.util.function.Supplier;
+
 public class Customer {
     private int customerId;
-    private String name;
-    private String email;
-    private CustomLinkedList<Order> orders;
+    private volatile String name;
+    private volatile String email;
+    private final OrderHistory orders = new OrderHistory(); // Date-ordered, guarded by this
+    // Lazy loading: fetches the stored order history on first access, then cleared
+    private Supplier<CustomLinkedList<Order>> orderLoader;
     
     public Customer(int cId, String n, String e) {
         customerId = cId;
         name = n;
         email = e;
-        this.orders = new CustomLinkedList<>();
     }
     
    
     
-    public CustomLinkedList<Order> getOrderHistory() {
-        return orders;
+    // Snapshot of the history, oldest order first.
+    public synchronized CustomLinkedList<Order> getOrderHistory() {
+        ensureOrdersLoaded();
+        return orders.toList();
+    }
+    
+    // Most recent orders first: skips offset, returns at most limit. O(log n + limit).
+    public synchronized CustomLinkedList<Order> getRecentOrders(int offset, int limit) {
+        ensureOrdersLoaded();
+        return orders.page(null, null, offset, limit);
+    }
+    
+    // Orders dated within [startDate, endDate] (null = open), most recent first.
+    public synchronized CustomLinkedList<Order> getOrdersBetweenDates(String startDate, String endDate, int offset, int limit) {
+        ensureOrdersLoaded();
+        return orders.page(startDate, endDate, offset, limit);
     }
     
-    public void addOrder(Order o) {
+    public synchronized int getOrderCount() {
+        ensureOrdersLoaded();
+        return orders.size();
+    }
+    
+    // Total of all orders that are not cancelled; O(1).
+    public synchronized double getLifetimeSpend() {
+        ensureOrdersLoaded();
+        return orders.lifetimeSpend();
+    }
+    
+    // Call after one of this customer's orders is cancelled, to take it out of the spend.
+    public synchronized void refreshOrder(Order o) {
+        if (orderLoader != null) return; // Counted with its current status when the history loads
+        orders.reconcile(o);
+    }
+    
+    public synchronized void addOrder(Order o) {
+        ensureOrdersLoaded();
         orders.add(o);
     }
     
+    // Appends several orders under one lock acquisition (used by batch placement).
+    public synchronized void addOrders(CustomLinkedList<Order> batch) {
+        ensureOrdersLoaded();
+        for (Order o : batch) {
+            orders.add(o);
+        }
+    }
+    
  
     
     public String getName() {
@@ -37,8 +80,27 @@ public class Customer {
         return email;
     }
     
-    public CustomLinkedList<Order> getOrders() {
-        return orders;
+    public synchronized CustomLinkedList<Order> getOrders() {
+        ensureOrdersLoaded();
+        return orders.toList();
+    }
+    
+    // Defers the stored history to loader, which runs once on the first access.
+    public synchronized void setOrderLoader(Supplier<CustomLinkedList<Order>> loader) {
+        this.orderLoader = loader;
+    }
+    
+    public synchronized boolean isOrderHistoryLoaded() {
+        return orderLoader == null;
+    }
+    
+    private void ensureOrdersLoaded() {
+        if (orderLoader == null) return;
+        Supplier<CustomLinkedList<Order>> loader = orderLoader;
+        orderLoader = null;
+        for (Order o : loader.get()) {
+            orders.add(o);
+        }
     }
     
     public void setName(String n) {
@@ -50,7 +112,8 @@ public class Customer {
     }
     
     @Override
-    public String toString() {
+    public synchronized String toString() {
+        ensureOrdersLoaded();
         return "Customer{" +
                 "customerId=" + customerId +
                 ", name='" + name + '\'' +
@@ -0,0 +1,207 @@
+package project;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic dataset generator for load and scale testing.
+ * Writes products.csv, customers.csv, orders.csv and reviews.csv in exactly the
+ * formats the ECommerceSystem loaders accept. Rows are streamed straight to disk
+ * and every per-entity attribute is derived from (seed, id), so memory use is
+ * constant no matter how many rows are generated.
+ *
+ * - Product IDs are emitted in a scrambled (but bijective) order so the loaders'
+ *   unbalanced BST stays shallow; pass sortedIds=true to reproduce sorted files.
+ * - Orders hold 1-5 product lines drawn with Zipf-like popularity and dates
+ *   skewed toward the end of the date range.
+ * - Reviews follow the same popularity skew and lean toward 4-5 stars.
+ *
+ * Usage: java project.DataGenerator <outDir> <products> <customers> <orders> <reviews> [seed]
+ */
+public class DataGenerator {
+
+    private static final String[] ADJECTIVES = {"Wireless", "Organic", "Compact", "Deluxe", "Smart",
+            "Vintage", "Portable", "Ergonomic", "Classic", "Ultra"};
+    private static final String[] NOUNS = {"Mouse", "Keyboard", "Lamp", "Backpack", "Blender",
+            "Headphones", "Kettle", "Chair", "Monitor", "Notebook", "Jacket", "Speaker"};
+    private static final String[] FIRST_NAMES = {"Sara", "Omar", "Lina", "Yousef", "Maya", "Khalid",
+            "Noor", "Adam", "Huda", "Faisal", "Reem", "Ali"};
+    private static final String[] LAST_NAMES = {"Alharbi", "Smith", "Alotaibi", "Garcia", "Alqahtani",
+            "Chen", "Alzahrani", "Johnson", "Aldosari", "Kim"};
+    private static final String[] COMMENTS = {"Great value, would buy again", "Works as described",
+            "Arrived late", "Excellent quality", "Not worth the price", "Good, but the battery is weak",
+            "Exactly what I needed", "Stopped working after a month"};
+    private static final String[] STATUSES = {"Pending", "Shipped", "Delivered", "Cancelled"};
+    private static final int[] STATUS_WEIGHTS = {15, 20, 60, 5}; // Percent
+
+    private static final double POPULARITY_SKEW = 1.1; // Zipf exponent for product popularity
+    private static final LocalDate FIRST_DATE = LocalDate.of(2023, 1, 1);
+    private static final int DATE_SPAN_DAYS = 730;
+
+    private final long seed;
+    private final boolean sortedIds;
+
+    public DataGenerator(long seed) {
+        this(seed, false);
+    }
+
+    public DataGenerator(long seed, boolean sortedIds) {
+        this.seed = seed;
+        this.sortedIds = sortedIds;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 5) {
+            System.out.println("Usage: java project.DataGenerator <outDir> <products> <customers> <orders> <reviews> [seed]");
+            return;
+        }
+        File dir = new File(args[0]);
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 42L;
+        long start = System.nanoTime();
+        new DataGenerator(seed).generate(dir, Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+        System.out.println("Generated data in " + dir + " (" + (System.nanoTime() - start) / 1_000_000 + " ms).");
+    }
+
+    // Writes all four CSV files into dir (created if missing).
+    public void generate(File dir, int products, int customers, int orders, int reviews) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        try (Writer w = open(new File(dir, "products.csv"))) { writeProducts(w, products); }
+        try (Writer w = open(new File(dir, "customers.csv"))) { writeCustomers(w, customers); }
+        try (Writer w = open(new File(dir, "orders.csv"))) { writeOrders(w, orders, customers, products); }
+        try (Writer w = open(new File(dir, "reviews.csv"))) { writeReviews(w, reviews, customers, products); }
+    }
+
+    private static Writer open(File file) throws IOException {
+        return new BufferedWriter(new FileWriter(file), 1 << 16);
+    }
+
+    // ================= PER-FILE WRITERS ================= //
+
+    public void writeProducts(Writer w, int count) throws IOException {
+        w.write("ProductId,Name,Price,Stock\n");
+        for (int i = 0; i < count; i++) {
+            int id = idAt(i, count);
+            long h = hash(1, id);
+            String name = ADJECTIVES[(int) (h & 0xFFFF) % ADJECTIVES.length] + " "
+                    + NOUNS[(int) ((h >>> 16) & 0xFFFF) % NOUNS.length] + " " + id;
+            int stock = ((h >>> 32) & 0xFF) < 13 ? 0 : (int) ((h >>> 40) % 500); // ~5% out of stock
+            w.write(id + ",\"" + name + "\"," + priceOf(id) + "," + stock + "\n");
+        }
+    }
+
+    public void writeCustomers(Writer w, int count) throws IOException {
+        w.write("CustomerId,Name,Email\n");
+        for (int i = 0; i < count; i++) {
+            int id = idAt(i, count);
+            long h = hash(2, id);
+            String first = FIRST_NAMES[(int) (h & 0xFFFF) % FIRST_NAMES.length];
+            String last = LAST_NAMES[(int) ((h >>> 16) & 0xFFFF) % LAST_NAMES.length];
+            w.write(id + ",\"" + first + " " + last + "\",\"" + first.toLowerCase() + "." + id + "@example.com\"\n");
+        }
+    }
+
+    // Totals are consistent with the generated product prices.
+    public void writeOrders(Writer w, int count, int customers, int products) throws IOException {
+        w.write("OrderId,CustomerId,ProductIds,TotalPrice,OrderDate,Status\n");
+        Random rnd = new Random(seed ^ 3);
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int id = idAt(i, count);
+            int customerId = 1 + rnd.nextInt(Math.max(1, customers));
+            int lines = 1 + (int) (4 * rnd.nextDouble() * rnd.nextDouble()); // Mostly 1-2, up to 5
+            ids.setLength(0);
+            double total = 0.0;
+            for (int l = 0; l < lines; l++) {
+                int pid = popularProduct(rnd, products);
+                if (l > 0) ids.append(';');
+                ids.append(pid);
+                total += priceOf(pid);
+            }
+            // Bias toward recent dates: more orders as the business grows
+            int day = (int) (DATE_SPAN_DAYS * Math.sqrt(rnd.nextDouble()));
+            String date = FIRST_DATE.plusDays(day).toString();
+            w.write(id + "," + customerId + ",\"" + ids + "\"," + Math.round(total * 100) / 100.0 + ","
+                    + date + "," + pickStatus(rnd) + "\n");
+        }
+    }
+
+    public void writeReviews(Writer w, int count, int customers, int products) throws IOException {
+        w.write("ReviewId,ProductId,CustomerId,Rating,Comment\n");
+        Random rnd = new Random(seed ^ 4);
+        for (int i = 0; i < count; i++) {
+            int id = i + 1; // Sequential, like the IDs addReview assigns
+            int pid = popularProduct(rnd, products);
+            int customerId = 1 + rnd.nextInt(Math.max(1, customers));
+            int rating = 5 - (int) (5 * Math.pow(rnd.nextDouble(), 2.5)); // Skewed toward 4-5
+            String comment = COMMENTS[rnd.nextInt(COMMENTS.length)];
+            w.write(id + "," + pid + "," + customerId + "," + rating + ",\"" + comment + "\"\n");
+        }
+    }
+
+    // ================= DISTRIBUTIONS ================= //
+
+    /**
+     * ID written at position i of a file with n rows. Scrambled order is the Weyl
+     * sequence i * step mod n (step coprime to n, near n / golden ratio), which
+     * visits every ID exactly once and builds a near-balanced BST when loaded.
+     */
+    int idAt(int i, int n) {
+        if (sortedIds || n <= 2) return i + 1;
+        return 1 + (int) (((long) i * weylStep(n)) % n);
+    }
+
+    private static long weylStep(int n) {
+        long step = Math.max(1, Math.round(n * 0.6180339887498949));
+        while (gcd(step, n) != 1) step++;
+        return step;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    // Zipf-like product ID in 1..n by inverting the continuous power-law CDF.
+    private static int popularProduct(Random rnd, int n) {
+        if (n <= 1) return 1;
+        double oneMinusS = 1.0 - POPULARITY_SKEW;
+        double x = Math.pow((Math.pow(n + 1, oneMinusS) - 1) * rnd.nextDouble() + 1, 1.0 / oneMinusS);
+        return Math.min(n, Math.max(1, (int) x));
+    }
+
+    private static String pickStatus(Random rnd) {
+        int roll = rnd.nextInt(100);
+        for (int i = 0; i < STATUSES.length; i++) {
+            roll -= STATUS_WEIGHTS[i];
+            if (roll < 0) return STATUSES[i];
+        }
+        return STATUSES[0];
+    }
+
+    // Price is a pure function of the ID, so orders can be priced without a lookup.
+    double priceOf(int productId) {
+        long h = hash(5, productId);
+        double dollars = Math.exp(1.0 + 5.0 * ((h >>> 11) * 0x1.0p-53)); // ~$2.7 to ~$400, log-uniform
+        return Math.round(dollars * 100) / 100.0;
+    }
+
+    // SplitMix64 over (seed, stream, id): cheap, stateless per-entity randomness.
+    private long hash(int stream, int id) {
+        long z = seed + stream * 0x9E3779B97F4A7C15L + id * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
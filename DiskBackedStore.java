@@ -0,0 +1,335 @@
+package project;
+
+import java.io.*;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * EntityStore whose entries live in a temporary data file, fronted by a size-bounded
+ * LRU cache of live objects, so heap use is bounded by the cache capacity rather
+ * than by the number of entities.
+ *
+ * - The file is an append-only log of [length][record] entries written by a RecordCodec;
+ *   an IntLongHashMap maps each key to its latest record. It is compacted once stale
+ *   versions outweigh the live ones.
+ * - Inserts go to the cache only. The least recently used entry is written back when the
+ *   cache overflows, so updates made through a cached object are never lost.
+ * - Evicted objects stay findable through weak references while something still holds
+ *   them, so callers never see two live copies of one entity. An object changed after it
+ *   was evicted must be reported through changed(), which caches it again so the change
+ *   is written back on its next eviction instead of being lost when it is collected.
+ * - onLoad runs on every object decoded from the file, so the owner can reattach state
+ *   that is not part of the record (e.g. lazy review loaders).
+ *
+ * All methods synchronize on the store. getAll() decodes uncached entries without caching
+ * them, so full scans do not flush the hot set. close() releases the data file once the
+ * store has been replaced.
+ */
+public class DiskBackedStore<T> implements EntityStore<T>, AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 10_000;
+    private static final long COMPACT_MIN_BYTES = 1 << 20;
+
+    private final RecordCodec<T> codec;
+    private final int capacity;
+    private final Consumer<T> onLoad;
+    private final File path;
+    private FileChannel file;
+    private long end;       // Append position
+    private long liveBytes; // Bytes of records the index still points to
+
+    private IntLongHashMap index = new IntLongHashMap();      // Key -> offset of latest record
+    private final LinkedHashMap<Integer, T> cache;            // Access-ordered: eldest = LRU
+    private final Map<Integer, Evicted<T>> evicted = new HashMap<>();
+    private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+    private int size;
+
+    private long hits, misses, evictions;
+    private final ByteArrayOutputStream encoded = new ByteArrayOutputStream(128);
+    private final DataOutputStream encoder = new DataOutputStream(encoded);
+
+    // Weak handle on an evicted object, remembering its key for cleanup.
+    private static final class Evicted<T> extends WeakReference<T> {
+        final int key;
+
+        Evicted(int key, T value, ReferenceQueue<T> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+    }
+
+    public DiskBackedStore(String name, RecordCodec<T> codec, int capacity, Consumer<T> onLoad) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+        this.codec = codec;
+        this.capacity = capacity;
+        this.onLoad = onLoad;
+        this.cache = new LinkedHashMap<Integer, T>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+                if (size() <= DiskBackedStore.this.capacity) return false;
+                writeBack(eldest.getKey(), eldest.getValue());
+                evictions++;
+                return true;
+            }
+        };
+        try {
+            path = File.createTempFile("ecommerce-" + name + "-", ".dat");
+            path.deleteOnExit();
+            file = open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create data file for " + name, e);
+        }
+    }
+
+    private static FileChannel open(File f) throws IOException {
+        return FileChannel.open(f.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public synchronized void insert(int key, T data) {
+        expungeCollected();
+        if (!cache.containsKey(key) && !index.containsKey(key)) size++;
+        evicted.remove(key);
+        cache.put(key, data);
+    }
+
+    @Override
+    public synchronized T find(int key) {
+        expungeCollected();
+        T value = cache.get(key);
+        if (value == null) value = revive(key);
+        if (value != null) {
+            hits++;
+            return value;
+        }
+        misses++;
+        long offset = index.get(key);
+        if (offset < 0) return null;
+        value = readRecord(offset);
+        onLoad.accept(value);
+        cache.put(key, value);
+        return value;
+    }
+
+    // A caller holding value changed it in place: make sure it is cached (and therefore
+    // written back when evicted) rather than only weakly held. Ignores stale values of
+    // deleted or replaced keys.
+    @Override
+    public synchronized void changed(int key, T data) {
+        expungeCollected();
+        if (cache.get(key) == data) return;
+        Evicted<T> ref = evicted.get(key);
+        if (ref == null || ref.get() != data) return;
+        evicted.remove(key);
+        cache.put(key, data);
+    }
+
+    // Moves a still-reachable evicted object back into the cache.
+    private T revive(int key) {
+        Evicted<T> ref = evicted.remove(key);
+        T value = ref != null ? ref.get() : null;
+        if (value != null) cache.put(key, value);
+        return value;
+    }
+
+    @Override
+    public synchronized boolean delete(int key) {
+        expungeCollected();
+        boolean present = cache.remove(key) != null;
+        long offset = index.get(key);
+        if (offset >= 0) {
+            liveBytes -= recordLength(offset);
+            index.remove(key);
+            present = true;
+        }
+        evicted.remove(key);
+        if (present) size--;
+        return present;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized CustomLinkedList<T> getAll() {
+        expungeCollected();
+        // Cached entries sorted by key (packed with their position, so LRU order is untouched)
+        Object[] cachedValues = new Object[cache.size()];
+        long[] cachedOrder = new long[cachedValues.length];
+        int n = 0;
+        for (Map.Entry<Integer, T> e : cache.entrySet()) {
+            cachedOrder[n] = ((long) e.getKey() << 32) | n;
+            cachedValues[n++] = e.getValue();
+        }
+        Arrays.sort(cachedOrder);
+        int[] storedKeys = index.sortedKeys();
+
+        CustomLinkedList<T> list = new CustomLinkedList<>();
+        int i = 0, j = 0;
+        while (i < cachedOrder.length || j < storedKeys.length) {
+            int cachedKey = i < cachedOrder.length ? (int) (cachedOrder[i] >> 32) : 0;
+            if (j == storedKeys.length || (i < cachedOrder.length && cachedKey <= storedKeys[j])) {
+                if (j < storedKeys.length && storedKeys[j] == cachedKey) j++; // Cached copy is newer
+                @SuppressWarnings("unchecked")
+                T value = (T) cachedValues[(int) cachedOrder[i++]];
+                list.add(value);
+            } else {
+                list.add(loadUncached(storedKeys[j++]));
+            }
+        }
+        return list;
+    }
+
+    // Evicted object if still alive, else a fresh decode remembered weakly (not cached).
+    private T loadUncached(int key) {
+        Evicted<T> ref = evicted.get(key);
+        T value = ref != null ? ref.get() : null;
+        if (value == null) {
+            misses++;
+            value = readRecord(index.get(key));
+            onLoad.accept(value);
+            evicted.put(key, new Evicted<>(key, value, collected));
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    /**
+     * Runs action on every entity currently in memory (cached, or evicted but still
+     * reachable), e.g. to update objects that onLoad will not see again.
+     */
+    public synchronized void forEachInMemory(Consumer<T> action) {
+        expungeCollected();
+        for (T value : cache.values()) action.accept(value);
+        for (Evicted<T> ref : evicted.values()) {
+            T value = ref.get();
+            if (value != null) action.accept(value);
+        }
+    }
+
+    /**
+     * Closes and deletes the data file. Cached objects stay readable; anything that needs
+     * the file afterwards (an uncached find, a write-back) fails with UncheckedIOException.
+     */
+    @Override
+    public synchronized void close() {
+        if (!file.isOpen()) return;
+        try {
+            file.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close data file " + path, e);
+        } finally {
+            path.delete();
+        }
+    }
+
+    public synchronized CacheStats getCacheStats() {
+        return new CacheStats(capacity, cache.size(), hits, misses, evictions);
+    }
+
+    public synchronized void resetCacheStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    private void expungeCollected() {
+        Object ref;
+        while ((ref = collected.poll()) != null) {
+            Evicted<?> e = (Evicted<?>) ref;
+            if (evicted.get(e.key) == e) evicted.remove(e.key);
+        }
+    }
+
+    // ---------------- Data file ---------------- //
+
+    private void writeBack(int key, T value) {
+        try {
+            long previous = index.get(key);
+            if (previous >= 0) liveBytes -= recordLength(previous);
+            long offset = append(value);
+            index.put(key, offset);
+            liveBytes += end - offset;
+            evicted.put(key, new Evicted<>(key, value, collected));
+            if (end > COMPACT_MIN_BYTES && end > 2 * liveBytes) compact();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write data file " + path, e);
+        }
+    }
+
+    private long append(T value) throws IOException {
+        encoded.reset();
+        encoder.writeInt(0); // Length placeholder
+        codec.write(value, encoder);
+        ByteBuffer buf = ByteBuffer.wrap(encoded.toByteArray());
+        buf.putInt(0, buf.capacity() - 4);
+        long offset = end;
+        while (buf.hasRemaining()) end += file.write(buf, end);
+        return offset;
+    }
+
+    private int recordLength(long offset) {
+        try {
+            ByteBuffer len = ByteBuffer.allocate(4);
+            readFully(file, len, offset);
+            return 4 + len.getInt(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read data file " + path, e);
+        }
+    }
+
+    private T readRecord(long offset) {
+        try {
+            ByteBuffer len = ByteBuffer.allocate(4);
+            readFully(file, len, offset);
+            ByteBuffer body = ByteBuffer.allocate(len.getInt(0));
+            readFully(file, body, offset + 4);
+            return codec.read(new DataInputStream(new ByteArrayInputStream(body.array())));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read data file " + path, e);
+        }
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long offset) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, offset + buf.position());
+            if (n < 0) throw new EOFException("Truncated record at " + offset);
+        }
+    }
+
+    // Copies the live records into a fresh file and swaps it in.
+    private void compact() throws IOException {
+        File tmp = File.createTempFile(path.getName(), ".compact", path.getParentFile());
+        IntLongHashMap compacted = new IntLongHashMap(index.size());
+        long written = 0;
+        try (FileChannel out = open(tmp)) {
+            for (int key : index.sortedKeys()) {
+                long offset = index.get(key);
+                ByteBuffer record = ByteBuffer.allocate(recordLength(offset));
+                readFully(file, record, offset);
+                record.flip();
+                compacted.put(key, written);
+                while (record.hasRemaining()) written += out.write(record, written);
+            }
+        }
+        file.close();
+        Files.move(tmp.toPath(), path.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        file = open(path);
+        index = compacted;
+        end = written;
+        liveBytes = written;
+    }
+}
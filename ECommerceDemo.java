@@ -1,4 +1,10 @@
+package project;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.Scanner;
 
 public class ECommerceDemo {
@@ -8,16 +14,64 @@ public class ECommerceDemo {
     // Scanner for capturing user input from console
     private static Scanner scanner = new Scanner(System.in);
 
-    // Centralized constants for CSV file paths to ensure consistency between load and save operations.
-    // Using absolute paths to avoid directory ambiguity during execution.
-    private static final String PRODUCT_FILE = "C:\\products.csv";
-    private static final String CUSTOMER_FILE = "C:\\customers.csv";
-    private static final String ORDER_FILE = "C:\\orders.csv";
-    private static final String REVIEW_FILE = "C:\\reviews.csv";
+    // Centralized CSV file paths to ensure consistency between load and save operations.
+    // Default to the original absolute paths; --data-dir <dir> points all four at another directory.
+    private static String productFile = "C:\\products.csv";
+    private static String customerFile = "C:\\customers.csv";
+    private static String orderFile = "C:\\orders.csv";
+    private static String reviewFile = "C:\\reviews.csv";
 
-    public static void main(String[] args) {
+    /**
+     * Usage:
+     *   java project.ECommerceDemo [--data-dir <dir>] [--lazy] [--off-heap] interactive menu
+     *   java project.ECommerceDemo --data-dir <dir> --script <file|->       headless batch run
+     *   java project.ECommerceDemo --data-dir <dir> --serve <port>          local request server
+     * --lazy indexes orders and reviews at load time and reads them from disk on first use.
+     * --off-heap keeps product name/price/stock in off-heap columns (ProductColumns).
+     * In batch mode the commands in the script (see BatchRunner) are executed with timings
+     * and the process exits with status 1 if any command failed.
+     * In server mode the same commands, except load and save, are served over TCP on
+     * localhost (see RequestServer and LoadGenerator) until the process is killed.
+     */
+    public static void main(String[] args) throws IOException {
+        String dataDir = null;
+        String script = null;
+        int servePort = -1;
+        for (String arg : args) {
+            // Requests are served from many threads at once, which the plain BST does not support
+            if (arg.equals("--serve")) system = new ECommerceSystem(StorageMode.SKIP_LIST);
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--data-dir") && i + 1 < args.length) dataDir = args[++i];
+            else if (args[i].equals("--script") && i + 1 < args.length) script = args[++i];
+            else if (args[i].equals("--serve") && i + 1 < args.length) servePort = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--lazy")) system.setLazyHistoryLoading(true);
+            else if (args[i].equals("--off-heap")) system.setOffHeapProducts(true);
+            else {
+                System.out.println("Unknown argument: " + args[i]);
+                System.out.println("Usage: ECommerceDemo [--data-dir <dir>] [--script <file|-> | --serve <port>] [--lazy] [--off-heap]");
+                System.exit(2);
+            }
+        }
+        if (dataDir != null) {
+            productFile = new File(dataDir, "products.csv").getPath();
+            customerFile = new File(dataDir, "customers.csv").getPath();
+            orderFile = new File(dataDir, "orders.csv").getPath();
+            reviewFile = new File(dataDir, "reviews.csv").getPath();
+        }
+        if (script != null) {
+            System.exit(runBatch(new File(dataDir != null ? dataDir : "."), script) == 0 ? 0 : 1);
+        }
+        if (servePort >= 0) {
+            serve(new File(dataDir != null ? dataDir : "."), servePort);
+            return;
+        }
+        
         System.out.println("Welcome to the E-Commerce Management System!");
         
+        // Interactive use: echo every system message synchronously so it lines up with the menu
+        system.setLogSink((level, message) -> System.out.println(message));
+        
         // Automatically load existing data into BSTs upon application startup
         loadAllCSVs();
 
@@ -37,6 +91,30 @@ public class ECommerceDemo {
         }
     }
 
+    // Non-interactive mode: warnings and errors go to stderr, results to stdout.
+    private static int runBatch(File dataDir, String script) throws IOException {
+        system.setLogSink(new ConsoleLogSink(System.err, LogLevel.WARN));
+        BatchRunner runner = new BatchRunner(system, dataDir, System.out);
+        try (BufferedReader in = script.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in))
+                : new BufferedReader(new FileReader(script))) {
+            return runner.run(in);
+        }
+    }
+
+    // Server mode: loads the data, then serves requests until the process is killed.
+    private static void serve(File dataDir, int port) throws IOException {
+        system.setLogSink(new ConsoleLogSink(System.err, LogLevel.WARN));
+        System.out.println(system.loadAllFromCSV(productFile, customerFile, orderFile, reviewFile));
+        RequestServer server = new RequestServer(new BatchRunner(system, dataDir, System.out));
+        System.out.println("Serving on 127.0.0.1:" + server.start(port));
+        try {
+            server.awaitTermination();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     // Displays the CLI menu options categorized by functionality
     private static void printMenu() {
         System.out.println("\n===== E-Commerce System Menu =====");
@@ -67,6 +145,8 @@ public class ECommerceDemo {
         System.out.println(" 25. List Products in Price Range");
         System.out.println(" 26. List Customers Alphabetically");
         System.out.println(" 27. List Customers Who Reviewed a Product");
+        System.out.println("--- Diagnostics ---");
+        System.out.println(" 28. Show Performance Metrics");
         System.out.println(" 0. Exit");
         System.out.print("Enter your choice: ");
     }
@@ -115,6 +195,9 @@ public class ECommerceDemo {
             case 26: handleListCustomersAlpha(); break;
             case 27: handleProductReviewers(); break;
             
+            // Diagnostics
+            case 28: handleShowMetrics(); break;
+            
             case 0:
                 saveAllCSVs(); // Ensure data is persisted before exit
                 System.out.println("Exiting system. Goodbye!");
@@ -129,20 +212,20 @@ public class ECommerceDemo {
     // Called automatically after any state-changing operation (Add/Edit/Delete).
     private static void saveAllCSVs() {
         System.out.println(">> Auto-Saving data to CSVs...");
-        system.saveProductsToCSV(PRODUCT_FILE);
-        system.saveCustomersToCSV(CUSTOMER_FILE);
-        system.saveOrdersToCSV(ORDER_FILE);
-        system.saveReviewsToCSV(REVIEW_FILE);
-        System.out.println(">> Save complete.");
+        boolean saved = system.saveProductsToCSV(productFile)
+                & system.saveCustomersToCSV(customerFile)
+                & system.saveOrdersToCSV(orderFile)
+                & system.saveReviewsToCSV(reviewFile);
+        System.out.println(saved ? ">> Save complete." : ">> Save failed; see the error log.");
     }
 
     // Re-initializes BSTs and loads data from CSVs. Used at startup and manual reload.
     private static void loadAllCSVs() {
         System.out.println("Attempting to load all data...");
-        system.loadProductsFromCSV(PRODUCT_FILE);
-        system.loadCustomersFromCSV(CUSTOMER_FILE);
-        system.loadOrdersFromCSV(ORDER_FILE);
-        system.loadReviewsFromCSV(REVIEW_FILE);
+        LoadReport report = system.loadAllFromCSV(productFile, customerFile, orderFile, reviewFile);
+        for (LoadReport part : report.getParts()) {
+            System.out.println("  " + part);
+        }
         System.out.println("Finished loading all CSVs.");
     }
 
@@ -150,25 +233,25 @@ public class ECommerceDemo {
     private static void loadProductsFromCSV() {
         System.out.print("Enter product CSV filename: ");
         String filename = scanner.nextLine();
-        system.loadProductsFromCSV(filename);
+        System.out.println(system.loadProductsFromCSV(filename));
     }
 
     private static void loadCustomersFromCSV() {
         System.out.print("Enter customer CSV filename: ");
         String filename = scanner.nextLine();
-        system.loadCustomersFromCSV(filename);
+        System.out.println(system.loadCustomersFromCSV(filename));
     }
 
     private static void loadOrdersFromCSV() {
         System.out.print("Enter order CSV filename: ");
         String filename = scanner.nextLine();
-        system.loadOrdersFromCSV(filename);
+        System.out.println(system.loadOrdersFromCSV(filename));
     }
 
     private static void loadReviewsFromCSV() {
         System.out.print("Enter review CSV filename: ");
         String filename = scanner.nextLine();
-        system.loadReviewsFromCSV(filename);
+        System.out.println(system.loadReviewsFromCSV(filename));
     }
 
     // Creates a Product object and inserts it into the BST. Auto-saves on success.
@@ -222,11 +305,13 @@ public class ECommerceDemo {
             Order order = new Order(orderId, custId, 0.0, date, "Pending");
             
             while (true) {
-                System.out.print("Enter Product ID to add (or 'done'): ");
+                System.out.print("Enter Product ID to add, optionally ID:QTY (or 'done'): ");
                 String pid = scanner.nextLine();
                 if (pid.equalsIgnoreCase("done")) break;
                 try { 
-                    order.addProduct(Integer.parseInt(pid)); 
+                    String[] parts = pid.split(":");
+                    int qty = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+                    order.addProduct(Integer.parseInt(parts[0].trim()), qty); 
                 } catch (NumberFormatException e) { 
                     System.out.println("Invalid ID format."); 
                 }
@@ -506,4 +591,10 @@ public class ECommerceDemo {
             System.out.println("Invalid input."); 
         }
     }
+
+    // Prints per-operation latency percentiles and the size/height of each entity tree.
+    private static void handleShowMetrics() {
+        System.out.println("--- Performance Metrics ---");
+        System.out.println(system.getMetricsSnapshot());
+    }
 }
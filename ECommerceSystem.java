@@ -1,4 +1,15 @@
+package project;
+
 import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Core system logic for the E-Commerce platform.
@@ -7,24 +18,263 @@ import java.io.*;
  * to ensure O(log n) time complexity for search, insertion, and deletion operations.
  * - Reviews are stored in a Custom Linked List since they are typically accessed 
  * sequentially per product or customer, making linear traversal O(n) acceptable.
+ *
+ * Concurrency (enabled with {@code new ECommerceSystem(true)} or a StorageMode):
+ * - LOCKED_BST: each entity tree is a ConcurrentBST with its own read-write lock, so
+ *   lookups, range queries and displays run in parallel and a writer only blocks its own tree.
+ * - SKIP_LIST: entities live in lock-free SkipListStores, so concurrent placeOrder calls
+ *   do not contend on a tree root at all.
+ * - DISK_CACHE: products and customers live in DiskBackedStores (data file plus a bounded
+ *   LRU cache); orders use a ConcurrentBST. History loading is always lazy in this mode,
+ *   and reviews/orders added at runtime are kept per owner so an evicted product or
+ *   customer gets its full history back when it is reloaded.
+ * - Entity state is guarded per object: Product, Customer and Order mutators
+ *   synchronize on the entity itself, and single-field reads are volatile.
+ * - The review list has its own read-write lock; review IDs are assigned under it.
+ * - Loaders build a new tree off to the side and publish it in one volatile write.
+ *
+ * Off-heap products (setOffHeapProducts): product name, price and stock live in ProductColumns
+ * rows (direct ByteBuffers) behind ColumnarProduct views; the product store still indexes
+ * the views by ID, while out-of-stock and price-range queries scan the packed columns.
+ *
+ * Stock tracking: every stored product reports its stock changes to a StockIndex, which
+ * keeps the out-of-stock and low-stock sets live and raises low-stock alerts to subscribers.
+ *
+ * Order statuses are stored as OrderStatus codes, and an OrderStatusIndex groups orders
+ * by code so getOrdersByStatus is O(k) and countOrdersByStatus is O(1) for the usual
+ * statuses (other strings share one code and are filtered by text). Status changes made
+ * through the system update the order and the index under the order's lock.
+ *
+ * Text search (searchProducts): product names and review comments are kept in TextIndexes
+ * (inverted indexes), rebuilt by the loaders and updated by addProduct, updateProduct,
+ * removeProduct, addReview and editReview; ProductSearch ranks the matches.
+ *
+ * Product queries (queryProducts): a ProductCatalogIndex keeps products sorted by ID, price
+ * and average rating; ProductQueryEngine plans each ProductQuery against it and the
+ * StockIndex, streaming the most selective range instead of flattening the product tree.
+ *
+ * Change events (addChangeListener): price and stock changes, order placement, status
+ * changes and cancellation, and review additions and edits are published as ChangeEvents
+ * through a bounded ChangeDispatcher. Publishing never blocks the operation; events are
+ * only built while at least one listener is registered.
+ *
+ * Lazy history loading (setLazyHistoryLoading): the order and review loaders only index
+ * byte offsets (CsvOffsetIndex). A customer's orders and a product's reviews are read
+ * from disk on first access; a lookup by order ID faults in that one row; operations that
+ * need every order or review (date range, saves, reviews by customer) read the rest once.
+ * Each row is materialized at most once, so all paths share the same Order/Review objects.
+ * Saving over an indexed file swaps in the new file's index under indexedFiles, so
+ * histories not yet read are read from the new file at the new offsets.
+ *
+ * Consistency model: find/insert/delete are linearizable in both concurrent modes;
+ * getAll() is a point-in-time snapshot with LOCKED_BST and weakly consistent with SKIP_LIST.
+ * Multi-entity operations such as placeOrder are not atomic as a whole: a reader may
+ * observe an order in the order tree shortly before it is appended to the customer's
+ * history. Customer order histories are returned as snapshots; other lists returned by
+ * entity getters (e.g. Product.getReviews) are live and must not be iterated while another
+ * thread mutates the same entity.
+ *
+ * Each customer keeps its orders in a date-ordered OrderHistory with an incremental lifetime
+ * spend; cancelOrder refreshes it when an order is cancelled. Cancelled is final:
+ * updateOrderStatus refuses to move an order out of it, since its stock was already released.
+ *
+ * placeOrder records each order's lines (OrderLines) with the unit prices it charged, so
+ * totals and per-product revenue never depend on later price changes; saveOrdersToCSV
+ * keeps them as "id@price" entries.
+ *
+ * getFrequentlyBoughtTogether reads a CoPurchaseIndex of bounded per-product partner counts,
+ * fed by the order loader and by placeOrder/placeOrders.
  */
 public class ECommerceSystem {
     
-    // BSTs for scalable data management
-    private BST<Product> products;
-    private BST<Customer> customers;
-    private BST<Order> orders;
+    // Ordered stores (BST by default) for scalable data management (volatile so reloads publish safely)
+    private volatile EntityStore<Product> products;
+    private volatile EntityStore<Customer> customers;
+    private volatile EntityStore<Order> orders;
+    private volatile OrderStatusIndex statusIndex = new OrderStatusIndex(); // Published with orders
+    // Co-purchase counts over all orders; null in lazy mode until the first lookup builds it
+    private volatile CoPurchaseIndex coPurchase = new CoPurchaseIndex();
     
     // Linked List for secondary data relationships
-    private CustomLinkedList<Review> reviews;
+    private volatile CustomLinkedList<Review> reviews;
+    private final ReentrantReadWriteLock reviewsLock = new ReentrantReadWriteLock();
+    private int nextReviewId = 1; // Guarded by reviewsLock
+    
+    // Lazy history loading: offset indexes of the last order/review files, and whether every
+    // row has been materialized yet. Materialization is serialized on lazyLock.
+    private volatile boolean lazyHistory;
+    private volatile CsvOffsetIndex orderIndex;
+    private volatile CsvOffsetIndex reviewIndex;
+    private volatile boolean allOrdersLoaded;
+    private volatile boolean allReviewsLoaded;
+    private EntityStore<Review> lazyReviewsById = new SkipListStore<>(); // Guarded by lazyLock
+    // Read-held while rows are read back through orderIndex/reviewIndex; write-held while a
+    // save replaces an indexed file and swaps in the index of the new file.
+    private final ReentrantReadWriteLock indexedFiles = new ReentrantReadWriteLock();
+    
+    // DISK_CACHE only: reviews and orders added since the last load, by product/customer ID
+    private final int cacheCapacity;
+    private volatile EntityStore<CustomLinkedList<Review>> addedReviews = new SkipListStore<>();
+    private volatile EntityStore<CustomLinkedList<Order>> addedOrders = new SkipListStore<>();
+    private final Object lazyLock = new Object();
+    
+    // Which EntityStore implementation backs the entity trees
+    private final StorageMode storageMode;
+    
+    // Live out-of-stock/low-stock sets for the current product set, and alert subscribers
+    public static final int DEFAULT_LOW_STOCK_THRESHOLD = 5;
+    private final CopyOnWriteArrayList<LowStockListener> lowStockSubscribers = new CopyOnWriteArrayList<>();
+    private volatile StockIndex stockIndex;
+    
+    // Change-notification stream for downstream consumers
+    private final ChangeDispatcher changes = new ChangeDispatcher();
+    private final StockListener stockEvents = (p, oldStock, newStock) -> {
+        products.changed(p.getProductId(), p); // DISK_CACHE: keeps the change if p was evicted meanwhile
+        if (changes.hasListeners()) changes.publish(ChangeEvent.stockChanged(p.getProductId(), oldStock, newStock));
+    };
+    
+    // Inverted indexes over product names (doc = product) and review comments (doc = review,
+    // grouped by product); each is published with the data it indexes
+    private volatile TextIndex productText = new TextIndex();
+    private volatile TextIndex reviewText = new TextIndex();
+    
+    // Sorted ID/price/rating rows for product queries; ratings follow reviewText
+    private volatile ProductCatalogIndex catalog = new ProductCatalogIndex();
+    
+    // Off-heap product columns, or null when products are plain heap objects
+    private volatile boolean offHeapProducts;
+    private volatile ProductColumns productColumns;
+    
+    // Operational messages go through a sink; by default only warnings and errors,
+    // written off-thread, so core operations do no console I/O.
+    private volatile LogSink log = new AsyncLogSink(System.out, LogLevel.WARN);
+    private static final int CORRUPT_LINE_SAMPLES = 10;
+    
+    // Per-operation call counts and latency histograms (lock-free recording)
+    private final SystemMetrics metrics = new SystemMetrics();
     
     public ECommerceSystem() {
-        products = new BST<>();
-        customers = new BST<>();
-        orders = new BST<>();
+        this(StorageMode.BST);
+    }
+    
+    public ECommerceSystem(boolean concurrent) {
+        this(concurrent ? StorageMode.LOCKED_BST : StorageMode.BST);
+    }
+    
+    public ECommerceSystem(StorageMode storageMode) {
+        this(storageMode, DiskBackedStore.DEFAULT_CAPACITY);
+    }
+    
+    // cacheCapacity: entities per DiskBackedStore cache (DISK_CACHE mode only).
+    public ECommerceSystem(StorageMode storageMode, int cacheCapacity) {
+        this.storageMode = storageMode;
+        this.cacheCapacity = cacheCapacity;
+        this.lazyHistory = storageMode == StorageMode.DISK_CACHE;
+        stockIndex = new StockIndex(DEFAULT_LOW_STOCK_THRESHOLD, lowStockSubscribers, stockEvents);
+        products = newProductStore();
+        customers = newCustomerStore();
+        orders = newTree();
         reviews = new CustomLinkedList<>();
     }
     
+    private <T> EntityStore<T> newTree() {
+        switch (storageMode) {
+            case LOCKED_BST: return new ConcurrentBST<>();
+            case SKIP_LIST: return new SkipListStore<>();
+            case DISK_CACHE: return new ConcurrentBST<>();
+            default: return new BST<>();
+        }
+    }
+    
+    private EntityStore<Product> newProductStore() {
+        if (storageMode != StorageMode.DISK_CACHE) return newTree();
+        return new DiskBackedStore<>("products", EntityCodecs.PRODUCT, cacheCapacity, p -> {
+            attachReviewLoader(p);
+            stockIndex.track(p);
+        });
+    }
+    
+    private EntityStore<Customer> newCustomerStore() {
+        if (storageMode != StorageMode.DISK_CACHE) return newTree();
+        return new DiskBackedStore<>("customers", EntityCodecs.CUSTOMER, cacheCapacity, this::attachOrderLoader);
+    }
+    
+    // Releases a store's data file once it is replaced or was never published.
+    private static void closeStore(EntityStore<?> store) {
+        if (store instanceof DiskBackedStore) ((DiskBackedStore<?>) store).close();
+    }
+    
+    public boolean isConcurrent() {
+        return storageMode != StorageMode.BST;
+    }
+    
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+    
+    public void setLogSink(LogSink log) {
+        this.log = log;
+    }
+    
+    public LogSink getLogSink() {
+        return log;
+    }
+    
+    // Applies to later loadOrdersFromCSV/loadReviewsFromCSV calls; always on with DISK_CACHE.
+    public void setLazyHistoryLoading(boolean lazy) {
+        this.lazyHistory = lazy || storageMode == StorageMode.DISK_CACHE;
+    }
+    
+    public boolean isLazyHistoryLoading() {
+        return lazyHistory;
+    }
+    
+    /**
+     * Keeps products in off-heap columns from the next loadProductsFromCSV on (or right
+     * away if no products exist yet). Not available with DISK_CACHE, whose store decodes
+     * its own Product objects.
+     */
+    public void setOffHeapProducts(boolean offHeap) {
+        if (offHeap && storageMode == StorageMode.DISK_CACHE) {
+            throw new IllegalStateException("Off-heap products are not supported with DISK_CACHE");
+        }
+        this.offHeapProducts = offHeap;
+        if (products.size() == 0) productColumns = offHeap ? new ProductColumns() : null;
+    }
+    
+    public boolean isOffHeapProducts() {
+        return offHeapProducts;
+    }
+    
+    // ================= METRICS ================= //
+    
+    // Copies current operation latencies plus size/height gauges for each entity store.
+    public MetricsSnapshot getMetricsSnapshot() {
+        return metrics.snapshot(products, customers, orders);
+    }
+    
+    // ================= CHANGE EVENTS ================= //
+    
+    // Registers listener for ChangeEvents, delivered asynchronously on the dispatcher thread.
+    public void addChangeListener(ChangeListener listener) {
+        changes.addListener(listener);
+    }
+    
+    public void removeChangeListener(ChangeListener listener) {
+        changes.removeListener(listener);
+    }
+    
+    // Dispatcher stats and flush(), e.g. to wait for delivery or watch for dropped events.
+    public ChangeDispatcher getChangeDispatcher() {
+        return changes;
+    }
+    
+    public void resetMetrics() {
+        metrics.reset();
+        if (products instanceof DiskBackedStore) ((DiskBackedStore<?>) products).resetCacheStats();
+        if (customers instanceof DiskBackedStore) ((DiskBackedStore<?>) customers).resetCacheStats();
+    }
+    
     // ================= DATA LOADING (File I/O) ================= //
    
     /**
@@ -32,8 +282,24 @@ public class ECommerceSystem {
      * Re-initializes the tree to prevent duplicates upon reload.
      * Includes error handling to skip specific corrupted lines without crashing.
      */
-    public void loadProductsFromCSV(String filename) {
-        products = new BST<>(); 
+    public LoadReport loadProductsFromCSV(String filename) {
+        EntityStore<Product> loaded = newProductStore(); // Built off to the side, then published
+        try {
+            return loadProductsInto(loaded, filename);
+        } catch (RuntimeException | Error e) {
+            closeStore(loaded);
+            throw e;
+        }
+    }
+    
+    private LoadReport loadProductsInto(EntityStore<Product> loaded, String filename) {
+        LoadReport report = new LoadReport(filename);
+        ProductColumns columns = offHeapProducts ? new ProductColumns() : null;
+        StockIndex.Builder index = new StockIndex.Builder(stockIndex.getThreshold(), lowStockSubscribers, stockEvents);
+        TextIndex.Builder text = new TextIndex.Builder();
+        ProductCatalogIndex.Builder loadedCatalog = new ProductCatalogIndex.Builder();
+        TextIndex ratings = reviewText;
+        CorruptionReporter corrupt = new CorruptionReporter(log, "product", CORRUPT_LINE_SAMPLES);
         try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
             String line = br.readLine(); // Skip CSV header
             while ((line = br.readLine()) != null) {
@@ -45,23 +311,65 @@ public class ECommerceSystem {
                     double price = Double.parseDouble(data[2]);
                     int stock = Integer.parseInt(data[3]);
                     
-                    Product product = new Product(productId, name, price, stock);
-                    products.insert(productId, product); // O(log n) insertion
+                    Product previous = loaded.find(productId); // Duplicate ID replaces the earlier row
+                    index.untrack(previous);
+                    Product product;
+                    if (columns != null) {
+                        columns.release(previous);
+                        product = columns.add(productId, name, price, stock);
+                    } else {
+                        product = new Product(productId, name, price, stock);
+                    }
+                    loaded.insert(productId, product); // O(log n) insertion
+                    index.track(product);
+                    text.add(productId, productId, 0, name);
+                    loadedCatalog.put(productId, price, ratings.averageRating(productId));
+                    report.recordAccepted();
                 } catch (Exception e) {
-                    System.out.println("Skipping corrupted product line: " + line);
+                    corrupt.report(line);
+                    report.recordRejected(e);
                 }
             }
-            System.out.println("Products loaded into BST.");
+            corrupt.finish();
+            log.log(LogLevel.INFO, "Products loaded into BST.");
         } catch (IOException e) {
-            System.out.println("Error reading product file: " + e.getMessage());
+            log.log(LogLevel.ERROR, "Error reading product file: " + e.getMessage());
+            report.recordError(e.getMessage());
         }
+        if (loaded instanceof DiskBackedStore) {
+            // Still-cached products would otherwise miss the loader onLoad gives evicted ones
+            ((DiskBackedStore<Product>) loaded).forEachInMemory(this::attachReviewLoader);
+        }
+        StockIndex builtStock = index.build();
+        TextIndex builtText = text.build();
+        ProductCatalogIndex builtCatalog = loadedCatalog.build();
+        EntityStore<Product> replaced = products;
+        products = loaded;
+        productColumns = columns;
+        stockIndex = builtStock;
+        productText = builtText;
+        catalog = builtCatalog;
+        report.finish(new File(filename).length());
+        closeStore(replaced);
+        return report;
     }
     
     /**
      * Loads customers from CSV into BST.
      */
-    public void loadCustomersFromCSV(String filename) {
-        customers = new BST<>(); 
+    public LoadReport loadCustomersFromCSV(String filename) {
+        EntityStore<Customer> loaded = newCustomerStore(); // Built off to the side, then published
+        try {
+            return loadCustomersInto(loaded, filename);
+        } catch (RuntimeException | Error e) {
+            closeStore(loaded);
+            throw e;
+        }
+    }
+    
+    private LoadReport loadCustomersInto(EntityStore<Customer> loaded, String filename) {
+        LoadReport report = new LoadReport(filename);
+        CorruptionReporter corrupt = new CorruptionReporter(log, "customer", CORRUPT_LINE_SAMPLES);
         try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
             String line = br.readLine(); 
             while ((line = br.readLine()) != null) {
@@ -73,15 +381,27 @@ public class ECommerceSystem {
                     String email = data[2].replace("\"", "");
                     
                     Customer customer = new Customer(customerId, name, email);
-                    customers.insert(customerId, customer);
+                    loaded.insert(customerId, customer);
+                    report.recordAccepted();
                 } catch (Exception e) {
-                    System.out.println("Skipping corrupted customer line: " + line);
+                    corrupt.report(line);
+                    report.recordRejected(e);
                 }
             }
-            System.out.println("Customers loaded into BST.");
+            corrupt.finish();
+            log.log(LogLevel.INFO, "Customers loaded into BST.");
         } catch (IOException e) {
-            System.out.println("Error reading customer file: " + e.getMessage());
+            log.log(LogLevel.ERROR, "Error reading customer file: " + e.getMessage());
+            report.recordError(e.getMessage());
+        }
+        if (loaded instanceof DiskBackedStore) {
+            ((DiskBackedStore<Customer>) loaded).forEachInMemory(this::attachOrderLoader);
         }
+        EntityStore<Customer> replaced = customers;
+        customers = loaded;
+        report.finish(new File(filename).length());
+        closeStore(replaced);
+        return report;
     }
     
     /**
@@ -89,90 +409,498 @@ public class ECommerceSystem {
      * Parses nested product IDs (semicolon separated) and links the order 
      * to the corresponding Customer object in memory.
      */
-    public void loadOrdersFromCSV(String filename) {
-        orders = new BST<>(); 
+    public LoadReport loadOrdersFromCSV(String filename) {
+        if (lazyHistory) return indexOrdersFromCSV(filename);
+        LoadReport report = new LoadReport(filename);
+        EntityStore<Order> loaded = newTree(); // Built off to the side, then published
+        OrderStatusIndex loadedStatus = new OrderStatusIndex();
+        CoPurchaseIndex loadedPairs = new CoPurchaseIndex();
+        CorruptionReporter corrupt = new CorruptionReporter(log, "order", CORRUPT_LINE_SAMPLES);
         try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
             String line = br.readLine(); 
             while ((line = br.readLine()) != null) {
                 if (line.trim().isEmpty()) continue;
                 try {
-                    String[] data = parseCSVLine(line);
-                    int orderId = Integer.parseInt(data[0]);
-                    int customerId = Integer.parseInt(data[1]);
-                    String productIdsStr = data[2].replace("\"", "");
-                    double totalPrice = Double.parseDouble(data[3]);
-                    String orderDate = data[4];
-                    String status = data[5];
-                    
-                    Order order = new Order(orderId, customerId, totalPrice, orderDate, status);
-                    
-                    // Parse nested product IDs "101;102;103"
-                    if (!productIdsStr.isEmpty()) {
-                        String[] productIds = productIdsStr.split(";");
-                        for (String pid : productIds) {
-                            if (!pid.trim().isEmpty()) {
-                                order.addProduct(Integer.parseInt(pid));
-                            }
-                        }
-                    }
-                    orders.insert(orderId, order);
+                    Order order = parseOrder(line);
+                    loaded.insert(order.getOrderId(), order);
+                    loadedStatus.add(order);
+                    loadedPairs.record(order);
                     
                     // Maintain relationship: Add order to Customer's history
-                    Customer customer = findCustomerById(customerId);
+                    Customer customer = customers.find(order.getCustomerId());
                     if (customer != null) {
                         customer.addOrder(order);
                     }
+                    report.recordAccepted();
                 } catch (Exception e) {
-                    System.out.println("Skipping corrupted order line: " + line);
+                    corrupt.report(line);
+                    report.recordRejected(e);
+                }
+            }
+            corrupt.finish();
+            log.log(LogLevel.INFO, "Orders loaded into BST.");
+        } catch (IOException e) {
+            log.log(LogLevel.ERROR, "Error reading order file: " + e.getMessage());
+            report.recordError(e.getMessage());
+        }
+        orders = loaded;
+        statusIndex = loadedStatus;
+        coPurchase = loadedPairs;
+        orderIndex = null;
+        report.finish(new File(filename).length());
+        return report;
+    }
+    
+    // OrderId,CustomerId,"ProductIds",TotalPrice,OrderDate,Status
+    // ProductIds holds one entry per unit, "101;102;102", or one per line with the unit price
+    // captured at placement and the quantity if above 1, "101@9.99;102@4.5*2" (restored as the
+    // order's lines). Older files repeat "id@price" per unit, which groups the same way.
+    static Order parseOrder(String line) {
+        String[] data = parseCSVLine(line);
+        int orderId = Integer.parseInt(data[0]);
+        int customerId = Integer.parseInt(data[1]);
+        String productIdsStr = data[2].replace("\"", "");
+        double totalPrice = Double.parseDouble(data[3]);
+        String orderDate = data[4];
+        String status = data[5];
+        
+        Order order = new Order(orderId, customerId, totalPrice, orderDate, status);
+        
+        // Parse nested product IDs "101;102;103", each optionally "@price" and "*quantity"
+        if (!productIdsStr.isEmpty()) {
+            String[] productIds = productIdsStr.split(";");
+            int[] entryIds = new int[productIds.length];
+            int[] quantities = new int[productIds.length];
+            double[] unitPrices = new double[productIds.length];
+            int entries = 0;
+            boolean priced = true;
+            for (String pid : productIds) {
+                if (!pid.trim().isEmpty()) {
+                    int star = pid.indexOf('*');
+                    int quantity = star < 0 ? 1 : Integer.parseInt(pid.substring(star + 1));
+                    if (quantity < 1) throw new IllegalArgumentException("Bad quantity in " + pid);
+                    String unit = star < 0 ? pid : pid.substring(0, star);
+                    int at = unit.indexOf('@');
+                    int id = Integer.parseInt(at < 0 ? unit : unit.substring(0, at));
+                    priced &= at >= 0;
+                    if (at >= 0) unitPrices[entries] = Double.parseDouble(unit.substring(at + 1));
+                    entryIds[entries] = id;
+                    quantities[entries++] = quantity;
+                }
+            }
+            if (priced && entries > 0) {
+                order.setLines(OrderLines.fromEntries(entryIds, quantities, unitPrices, entries));
+            } else {
+                for (int i = 0; i < entries; i++) order.addProduct(entryIds[i], quantities[i]);
+            }
+        }
+        return order;
+    }
+    
+    /**
+     * Lazy variant of loadOrdersFromCSV: indexes the file by order and customer ID and
+     * gives every customer a loader for its history. The order tree starts empty and
+     * fills as rows are materialized.
+     */
+    private LoadReport indexOrdersFromCSV(String filename) {
+        LoadReport report = new LoadReport(filename);
+        CorruptionReporter corrupt = new CorruptionReporter(log, "order", CORRUPT_LINE_SAMPLES);
+        CsvOffsetIndex index = null;
+        try {
+            index = CsvOffsetIndex.build(filename, report, corrupt);
+            corrupt.finish();
+            log.log(LogLevel.INFO, "Orders indexed for lazy loading.");
+        } catch (IOException e) {
+            log.log(LogLevel.ERROR, "Error reading order file: " + e.getMessage());
+            report.recordError(e.getMessage());
+        }
+        synchronized (lazyLock) {
+            orders = newTree();
+            statusIndex = new OrderStatusIndex();
+            coPurchase = null;
+            orderIndex = index;
+            allOrdersLoaded = false;
+            addedOrders = new SkipListStore<>();
+        }
+        if (customers instanceof DiskBackedStore) {
+            // Customers read from disk later get their loader from the store's onLoad hook
+            ((DiskBackedStore<Customer>) customers).forEachInMemory(this::attachOrderLoader);
+        } else {
+            for (Customer c : customers.getAll()) attachOrderLoader(c);
+        }
+        report.finish(new File(filename).length());
+        return report;
+    }
+    
+    // Defers c's history to the current order index plus the orders added since the load.
+    private void attachOrderLoader(Customer c) {
+        EntityStore<CustomLinkedList<Order>> added = addedOrders;
+        int customerId = c.getCustomerId();
+        c.setOrderLoader(() -> loadOrderHistory(added, customerId));
+    }
+    
+    // DISK_CACHE: remembers orders appended to a customer's history at runtime.
+    private void recordAddedOrder(int customerId, Order order) {
+        if (storageMode != StorageMode.DISK_CACHE) return;
+        CustomLinkedList<Order> recent;
+        synchronized (lazyLock) {
+            recent = addedOrders.find(customerId);
+            if (recent == null) {
+                recent = new CustomLinkedList<>();
+                addedOrders.insert(customerId, recent);
+            }
+        }
+        synchronized (recent) {
+            recent.add(order);
+        }
+    }
+    
+    /**
+     * A customer's stored orders in file order, then the orders in added that the file does
+     * not hold (a save may have written them since). The stored part is empty if a later
+     * load has replaced the index; a save's replacement of the same file is followed.
+     */
+    private CustomLinkedList<Order> loadOrderHistory(EntityStore<CustomLinkedList<Order>> added, int customerId) {
+        CustomLinkedList<Order> result = new CustomLinkedList<>();
+        indexedFiles.readLock().lock();
+        try {
+            CsvOffsetIndex index = added == addedOrders ? orderIndex : null;
+            if (index != null) {
+                String[] lines = index.readLines(index.offsetsForOwner(customerId));
+                synchronized (lazyLock) {
+                    for (String line : lines) {
+                        Order order = materializeOrder(line);
+                        if (order != null) result.add(order);
+                    }
+                }
+            }
+            CustomLinkedList<Order> recent = added.find(customerId);
+            if (recent != null) {
+                synchronized (recent) {
+                    for (Order o : recent) {
+                        if (index == null || index.offsetsForId(o.getOrderId()).length == 0) result.add(o);
+                    }
                 }
             }
-            System.out.println("Orders loaded into BST.");
         } catch (IOException e) {
-            System.out.println("Error reading order file: " + e.getMessage());
+            log.log(LogLevel.ERROR, "Error reading order file: " + e.getMessage());
+        } finally {
+            indexedFiles.readLock().unlock();
+        }
+        return result;
+    }
+    
+    // Parses a stored row, reusing the Order already in the tree if there is one.
+    // Caller holds lazyLock. Returns null for a corrupted row.
+    private Order materializeOrder(String line) {
+        Order order;
+        try {
+            order = parseOrder(line);
+        } catch (Exception e) {
+            log.log(LogLevel.WARN, "Skipping corrupted order line: " + line);
+            return null;
+        }
+        Order existing = orders.find(order.getOrderId());
+        if (existing != null) return existing;
+        orders.insert(order.getOrderId(), order);
+        statusIndex.add(order);
+        return order;
+    }
+    
+    // orders.find, faulting the row in from disk if it has not been materialized yet.
+    private Order lookupOrder(int orderId) {
+        Order order = orders.find(orderId);
+        if (order != null || orderIndex == null || allOrdersLoaded) return order;
+        indexedFiles.readLock().lock();
+        try {
+            CsvOffsetIndex index = orderIndex;
+            if (index == null) return orders.find(orderId);
+            long[] at = index.offsetsForId(orderId);
+            if (at.length == 0) return null;
+            String[] lines = index.readLines(at);
+            synchronized (lazyLock) {
+                if (index != orderIndex) return orders.find(orderId);
+                for (String line : lines) materializeOrder(line);
+            }
+        } catch (IOException e) {
+            log.log(LogLevel.ERROR, "Error reading order file: " + e.getMessage());
+        } finally {
+            indexedFiles.readLock().unlock();
+        }
+        return orders.find(orderId);
+    }
+    
+    // Materializes every stored order not yet in the tree, before a full scan.
+    // Returns false if the order file could not be read.
+    private boolean ensureAllOrdersLoaded() {
+        if (orderIndex == null || allOrdersLoaded) return true;
+        indexedFiles.readLock().lock();
+        try {
+            synchronized (lazyLock) {
+                CsvOffsetIndex index = orderIndex;
+                if (index == null || allOrdersLoaded) return true;
+                try (BufferedReader br = new BufferedReader(new FileReader(index.getFilename()))) {
+                    String line = br.readLine(); // Skip CSV header
+                    while ((line = br.readLine()) != null) {
+                        if (!line.trim().isEmpty()) materializeOrder(line);
+                    }
+                    allOrdersLoaded = true;
+                    return true;
+                } catch (IOException e) {
+                    log.log(LogLevel.ERROR, "Error reading order file: " + e.getMessage());
+                    return false;
+                }
+            }
+        } finally {
+            indexedFiles.readLock().unlock();
         }
     }
     
     /**
      * Loads reviews and links them to the specific Product object.
      */
-    public void loadReviewsFromCSV(String filename) {
-        reviews.clear(); 
+    public LoadReport loadReviewsFromCSV(String filename) {
+        if (lazyHistory) return indexReviewsFromCSV(filename);
+        LoadReport report = new LoadReport(filename);
+        CustomLinkedList<Review> loaded = new CustomLinkedList<>();
+        TextIndex.Builder textBuilder = new TextIndex.Builder();
+        CorruptionReporter corrupt = new CorruptionReporter(log, "review", CORRUPT_LINE_SAMPLES);
         try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
             String line = br.readLine(); 
             while ((line = br.readLine()) != null) {
                 if (line.trim().isEmpty()) continue;
                 try {
-                    String[] data = parseCSVLine(line);
-                    int reviewId = Integer.parseInt(data[0]);
-                    int productId = Integer.parseInt(data[1]);
-                    int customerId = Integer.parseInt(data[2]);
-                    int rating = Integer.parseInt(data[3]);
-                    String comment = data[4].replace("\"", "");
-                    
-                    Review review = new Review(reviewId, productId, customerId, rating, comment);
-                    reviews.add(review); 
+                    Review review = parseReview(line);
+                    loaded.add(review); 
+                    textBuilder.add(review.getReviewId(), review.getProductId(), review.getRating(), review.getComment());
                     
                     // Link review to Product for easier average rating calculation
-                    Product product = findProductById(productId);
+                    Product product = products.find(review.getProductId());
                     if (product != null) {
                         product.addReview(review);
                     }
+                    report.recordAccepted();
                 } catch (Exception e) {
-                    System.out.println("Skipping corrupted review line: " + line);
+                    corrupt.report(line);
+                    report.recordRejected(e);
                 }
             }
-            System.out.println("Reviews loaded.");
+            corrupt.finish();
+            log.log(LogLevel.INFO, "Reviews loaded.");
         } catch (IOException e) {
-            System.out.println("Error reading review file: " + e.getMessage());
+            log.log(LogLevel.ERROR, "Error reading review file: " + e.getMessage());
+            report.recordError(e.getMessage());
+        }
+        TextIndex text = textBuilder.build();
+        reviewsLock.writeLock().lock();
+        try {
+            reviews = loaded;
+            nextReviewId = loaded.size() + 1;
+            reviewIndex = null;
+            reviewText = text;
+        } finally {
+            reviewsLock.writeLock().unlock();
         }
+        catalog.resetRatings(text);
+        report.finish(new File(filename).length());
+        return report;
+    }
+    
+    // ReviewId,ProductId,CustomerId,Rating,"Comment"
+    private static Review parseReview(String line) {
+        String[] data = parseCSVLine(line);
+        int reviewId = Integer.parseInt(data[0]);
+        int productId = Integer.parseInt(data[1]);
+        int customerId = Integer.parseInt(data[2]);
+        int rating = Integer.parseInt(data[3]);
+        String comment = data[4].replace("\"", "");
+        return new Review(reviewId, productId, customerId, rating, comment);
+    }
+    
+    /**
+     * Lazy variant of loadReviewsFromCSV: indexes the file by review and product ID and
+     * gives every product a loader for its reviews. The global review list starts empty
+     * and fills as rows are materialized.
+     */
+    private LoadReport indexReviewsFromCSV(String filename) {
+        LoadReport report = new LoadReport(filename);
+        CorruptionReporter corrupt = new CorruptionReporter(log, "review", CORRUPT_LINE_SAMPLES);
+        CsvOffsetIndex index = null;
+        try {
+            index = CsvOffsetIndex.build(filename, report, corrupt);
+            corrupt.finish();
+            log.log(LogLevel.INFO, "Reviews indexed for lazy loading.");
+        } catch (IOException e) {
+            log.log(LogLevel.ERROR, "Error reading review file: " + e.getMessage());
+            report.recordError(e.getMessage());
+        }
+        synchronized (lazyLock) {
+            reviewsLock.writeLock().lock();
+            try {
+                reviews = new CustomLinkedList<>();
+                nextReviewId = (index != null ? index.rowCount() : 0) + 1;
+                reviewIndex = index;
+                allReviewsLoaded = false;
+                reviewText = new TextIndex(); // Filled as rows are materialized
+            } finally {
+                reviewsLock.writeLock().unlock();
+            }
+            lazyReviewsById = new SkipListStore<>();
+            addedReviews = new SkipListStore<>();
+        }
+        catalog.resetRatings(reviewText);
+        if (products instanceof DiskBackedStore) {
+            // Products read from disk later get their loader from the store's onLoad hook
+            ((DiskBackedStore<Product>) products).forEachInMemory(this::attachReviewLoader);
+        } else {
+            for (Product p : products.getAll()) attachReviewLoader(p);
+        }
+        report.finish(new File(filename).length());
+        return report;
+    }
+    
+    // Defers p's reviews to the current review index plus the reviews added since the load.
+    private void attachReviewLoader(Product p) {
+        EntityStore<CustomLinkedList<Review>> added = addedReviews;
+        int productId = p.getProductId();
+        p.setReviewLoader(() -> loadProductReviews(added, productId));
+    }
+    
+    // DISK_CACHE: remembers reviews linked to a product at runtime.
+    private void recordAddedReview(int productId, Review review) {
+        if (storageMode != StorageMode.DISK_CACHE) return;
+        CustomLinkedList<Review> recent;
+        synchronized (lazyLock) {
+            recent = addedReviews.find(productId);
+            if (recent == null) {
+                recent = new CustomLinkedList<>();
+                addedReviews.insert(productId, recent);
+            }
+        }
+        synchronized (recent) {
+            recent.add(review);
+        }
+    }
+    
+    // A product's stored reviews in file order, then the reviews in added that the file does
+    // not hold; the review counterpart of loadOrderHistory.
+    private CustomLinkedList<Review> loadProductReviews(EntityStore<CustomLinkedList<Review>> added, int productId) {
+        CustomLinkedList<Review> result = new CustomLinkedList<>();
+        indexedFiles.readLock().lock();
+        try {
+            CsvOffsetIndex index = added == addedReviews ? reviewIndex : null;
+            if (index != null) {
+                String[] lines = index.readLines(index.offsetsForOwner(productId));
+                synchronized (lazyLock) {
+                    for (String line : lines) {
+                        Review review = materializeReview(line);
+                        if (review != null) result.add(review);
+                    }
+                }
+            }
+            CustomLinkedList<Review> recent = added.find(productId);
+            if (recent != null) {
+                synchronized (recent) {
+                    for (Review r : recent) {
+                        if (index == null || index.offsetsForId(r.getReviewId()).length == 0) result.add(r);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.log(LogLevel.ERROR, "Error reading review file: " + e.getMessage());
+        } finally {
+            indexedFiles.readLock().unlock();
+        }
+        return result;
+    }
+    
+    // Parses a stored row, reusing the Review if it was materialized before; new ones are
+    // appended to the review list. Caller holds lazyLock. Returns null for a corrupted row.
+    private Review materializeReview(String line) {
+        Review review;
+        try {
+            review = parseReview(line);
+        } catch (Exception e) {
+            log.log(LogLevel.WARN, "Skipping corrupted review line: " + line);
+            return null;
+        }
+        Review existing = lazyReviewsById.find(review.getReviewId());
+        if (existing != null) return existing;
+        lazyReviewsById.insert(review.getReviewId(), review);
+        reviewsLock.writeLock().lock();
+        try {
+            reviews.add(review);
+            reindexReview(review);
+        } finally {
+            reviewsLock.writeLock().unlock();
+        }
+        return review;
+    }
+    
+    /**
+     * Materializes every stored review before a full scan of the review list, then puts
+     * the list back in file order followed by the reviews added since the load.
+     * Returns false if the review file could not be read.
+     */
+    private boolean ensureAllReviewsLoaded() {
+        if (reviewIndex == null || allReviewsLoaded) return true;
+        indexedFiles.readLock().lock();
+        try {
+            synchronized (lazyLock) {
+                CsvOffsetIndex index = reviewIndex;
+                if (index == null || allReviewsLoaded) return true;
+                CustomLinkedList<Review> ordered = new CustomLinkedList<>();
+                try (BufferedReader br = new BufferedReader(new FileReader(index.getFilename()))) {
+                    String line = br.readLine(); // Skip CSV header
+                    while ((line = br.readLine()) != null) {
+                        if (line.trim().isEmpty()) continue;
+                        Review review = materializeReview(line);
+                        if (review != null) ordered.add(review);
+                    }
+                } catch (IOException e) {
+                    log.log(LogLevel.ERROR, "Error reading review file: " + e.getMessage());
+                    return false;
+                }
+                reviewsLock.writeLock().lock();
+                try {
+                    for (Review r : reviews) {
+                        if (lazyReviewsById.find(r.getReviewId()) != r) ordered.add(r); // Added after the load
+                    }
+                    reviews = ordered;
+                    allReviewsLoaded = true;
+                } finally {
+                    reviewsLock.writeLock().unlock();
+                }
+                return true;
+            }
+        } finally {
+            indexedFiles.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Loads all four files in dependency order (products and customers before the
+     * orders and reviews that reference them) and returns a combined report whose
+     * getParts() holds the per-file reports.
+     */
+    public LoadReport loadAllFromCSV(String productFile, String customerFile, String orderFile, String reviewFile) {
+        CustomLinkedList<LoadReport> parts = new CustomLinkedList<>();
+        parts.add(loadProductsFromCSV(productFile));
+        parts.add(loadCustomersFromCSV(customerFile));
+        parts.add(loadOrdersFromCSV(orderFile));
+        parts.add(loadReviewsFromCSV(reviewFile));
+        LoadReport total = LoadReport.combine("all", parts);
+        if (log.isEnabled(LogLevel.INFO)) log.log(LogLevel.INFO, total.toString());
+        return total;
     }
     
     /**
      * Custom CSV Parser.
      * Handles cases where data fields (like names or comments) contain commas 
      * by checking if they are enclosed in quotes.
+     * Package-private and static so the benchmarks can exercise it directly.
      */
-    private String[] parseCSVLine(String line) {
+    static String[] parseCSVLine(String line) {
         CustomLinkedList<String> result = new CustomLinkedList<>();
         boolean inQuotes = false;
         StringBuilder current = new StringBuilder();
@@ -196,245 +924,873 @@ public class ECommerceSystem {
      * Saves Products to CSV.
      * Uses BST.getAll() which performs an In-Order Traversal to 
      * ensure data is saved sorted by ID.
+     * Each save writes a temporary file next to filename and renames it over filename once
+     * complete, so a failed save leaves the previous file whole. Each returns false (and logs
+     * an error) if the file could not be written.
      */
-    public void saveProductsToCSV(String filename) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filename))) {
-            bw.write("ProductId,Name,Price,Stock");
-            bw.newLine();
-            CustomLinkedList<Product> allProducts = products.getAll(); // O(n) traversal
-            for (int i = 0; i < allProducts.size(); i++) {
-                Product p = allProducts.get(i);
-                String safeName = "\"" + p.getName() + "\""; // Escape quotes
-                String line = p.getProductId() + "," + safeName + "," + p.getPrice() + "," + p.getStock();
-                bw.write(line);
-                bw.newLine();
+    public boolean saveProductsToCSV(String filename) {
+        try {
+            Path temp = writeTempCSV(filename, "ProductId,Name,Price,Stock", bw -> {
+                CustomLinkedList<Product> allProducts = products.getAll(); // O(n) traversal
+                for (Product p : allProducts) {
+                    String safeName = "\"" + p.getName() + "\""; // Escape quotes
+                    String line = p.getProductId() + "," + safeName + "," + p.getPrice() + "," + p.getStock();
+                    bw.write(line);
+                    bw.newLine();
+                }
+            });
+            replaceFile(temp, filename);
+            log.log(LogLevel.INFO, "Products saved.");
+            return true;
+        } catch (IOException e) {
+            log.log(LogLevel.ERROR, "Error saving products: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public boolean saveCustomersToCSV(String filename) {
+        try {
+            Path temp = writeTempCSV(filename, "CustomerId,Name,Email", bw -> {
+                CustomLinkedList<Customer> allCustomers = customers.getAll();
+                for (Customer c : allCustomers) {
+                    String safeName = "\"" + c.getName() + "\"";
+                    String safeEmail = "\"" + c.getEmail() + "\"";
+                    String line = c.getCustomerId() + "," + safeName + "," + safeEmail;
+                    bw.write(line);
+                    bw.newLine();
+                }
+            });
+            replaceFile(temp, filename);
+            log.log(LogLevel.INFO, "Customers saved.");
+            return true;
+        } catch (IOException e) {
+            log.log(LogLevel.ERROR, "Error saving customers: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // In lazy mode every stored order is materialized first, since filename may be the very
+    // file the order index reads from; replacing that file also swaps in its new index.
+    public boolean saveOrdersToCSV(String filename) {
+        if (!ensureAllOrdersLoaded()) {
+            log.log(LogLevel.ERROR, "Error saving orders: stored orders could not be read.");
+            return false;
+        }
+        try {
+            Path temp = writeTempCSV(filename, "OrderId,CustomerId,ProductIds,TotalPrice,OrderDate,Status", bw -> {
+                CustomLinkedList<Order> allOrders = orders.getAll();
+                for (Order o : allOrders) {
+                    // Reconstruct product IDs list "1;2;3", or "1@unitPrice*quantity" per line when the lines are known
+                    StringBuilder pIds = new StringBuilder();
+                    OrderLines lines = o.getLines();
+                    if (lines != null) {
+                        for (int j = 0; j < lines.size(); j++) {
+                            if (j > 0) pIds.append(';');
+                            pIds.append(lines.getProductId(j)).append('@').append(lines.getUnitPrice(j));
+                            if (lines.getQuantity(j) > 1) pIds.append('*').append(lines.getQuantity(j));
+                        }
+                    } else {
+                        for (int pid : o.getProductIds()) {
+                            if (pIds.length() > 0) pIds.append(';');
+                            pIds.append(pid);
+                        }
+                    }
+                    String pIdsStr = "\"" + pIds.toString() + "\"";
+                    String line = o.getOrderId() + "," + o.getCustomerId() + "," + pIdsStr + "," + 
+                                  o.getTotalPrice() + "," + o.getOrderDate() + "," + o.getStatus();
+                    bw.write(line);
+                    bw.newLine();
+                }
+            });
+            CsvOffsetIndex index = orderIndex;
+            if (!isIndexOf(index, filename)) {
+                replaceFile(temp, filename);
+            } else {
+                CsvOffsetIndex rebuilt = rebuildIndex(temp, index, "order");
+                indexedFiles.writeLock().lock();
+                try {
+                    replaceFile(temp, filename);
+                    if (orderIndex == index) orderIndex = rebuilt;
+                } finally {
+                    indexedFiles.writeLock().unlock();
+                }
             }
-            System.out.println("Products saved.");
-        } catch (IOException e) { System.out.println("Error saving products: " + e.getMessage()); }
+            log.log(LogLevel.INFO, "Orders saved.");
+            return true;
+        } catch (IOException e) {
+            log.log(LogLevel.ERROR, "Error saving orders: " + e.getMessage());
+            return false;
+        }
     }
 
-    public void saveCustomersToCSV(String filename) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filename))) {
-            bw.write("CustomerId,Name,Email");
-            bw.newLine();
-            CustomLinkedList<Customer> allCustomers = customers.getAll();
-            for (int i = 0; i < allCustomers.size(); i++) {
-                Customer c = allCustomers.get(i);
-                String safeName = "\"" + c.getName() + "\"";
-                String safeEmail = "\"" + c.getEmail() + "\"";
-                String line = c.getCustomerId() + "," + safeName + "," + safeEmail;
-                bw.write(line);
-                bw.newLine();
-            }
-            System.out.println("Customers saved.");
-        } catch (IOException e) { System.out.println("Error saving customers: " + e.getMessage()); }
+    // Like saveOrdersToCSV; the reviews added since the load are also registered as
+    // materialized, since the new file now holds their rows.
+    public boolean saveReviewsToCSV(String filename) {
+        if (!ensureAllReviewsLoaded()) {
+            log.log(LogLevel.ERROR, "Error saving reviews: stored reviews could not be read.");
+            return false;
+        }
+        try {
+            Path temp = writeTempCSV(filename, "ReviewId,ProductId,CustomerId,Rating,Comment", bw -> {
+                reviewsLock.readLock().lock();
+                try {
+                    for (Review r : reviews) {
+                        String safeComment = "\"" + r.getComment() + "\"";
+                        String line = r.getReviewId() + "," + r.getProductId() + "," + 
+                                      r.getCustomerId() + "," + r.getRating() + "," + safeComment;
+                        bw.write(line);
+                        bw.newLine();
+                    }
+                } finally {
+                    reviewsLock.readLock().unlock();
+                }
+            });
+            CsvOffsetIndex index = reviewIndex;
+            if (!isIndexOf(index, filename)) {
+                replaceFile(temp, filename);
+            } else {
+                CsvOffsetIndex rebuilt = rebuildIndex(temp, index, "review");
+                indexedFiles.writeLock().lock();
+                try {
+                    replaceFile(temp, filename);
+                    synchronized (lazyLock) {
+                        if (reviewIndex == index) {
+                            reviewsLock.readLock().lock();
+                            try {
+                                for (Review r : reviews) {
+                                    if (lazyReviewsById.find(r.getReviewId()) == null) lazyReviewsById.insert(r.getReviewId(), r);
+                                }
+                            } finally {
+                                reviewsLock.readLock().unlock();
+                            }
+                            reviewIndex = rebuilt;
+                        }
+                    }
+                } finally {
+                    indexedFiles.writeLock().unlock();
+                }
+            }
+            log.log(LogLevel.INFO, "Reviews saved.");
+            return true;
+        } catch (IOException e) {
+            log.log(LogLevel.ERROR, "Error saving reviews: " + e.getMessage());
+            return false;
+        }
     }
 
-    public void saveOrdersToCSV(String filename) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filename))) {
-            bw.write("OrderId,CustomerId,ProductIds,TotalPrice,OrderDate,Status");
-            bw.newLine();
-            CustomLinkedList<Order> allOrders = orders.getAll();
-            for (int i = 0; i < allOrders.size(); i++) {
-                Order o = allOrders.get(i);
-                // Reconstruct product IDs list "1;2;3"
-                StringBuilder pIds = new StringBuilder();
-                CustomLinkedList<Integer> ids = o.getProductIds();
-                for (int j = 0; j < ids.size(); j++) {
-                    pIds.append(ids.get(j));
-                    if (j < ids.size() - 1) pIds.append(";");
-                }
-                String pIdsStr = "\"" + pIds.toString() + "\"";
-                String line = o.getOrderId() + "," + o.getCustomerId() + "," + pIdsStr + "," + 
-                              o.getTotalPrice() + "," + o.getOrderDate() + "," + o.getStatus();
-                bw.write(line);
-                bw.newLine();
-            }
-            System.out.println("Orders saved.");
-        } catch (IOException e) { System.out.println("Error saving orders: " + e.getMessage()); }
+    private interface CsvRows {
+        void write(BufferedWriter bw) throws IOException;
     }
 
-    public void saveReviewsToCSV(String filename) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filename))) {
-            bw.write("ReviewId,ProductId,CustomerId,Rating,Comment");
+    // Writes header and rows to a new temporary file in filename's directory.
+    private static Path writeTempCSV(String filename, String header, CsvRows rows) throws IOException {
+        Path target = Paths.get(filename).toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(temp.toFile()))) {
+            bw.write(header);
             bw.newLine();
-            for (int i = 0; i < reviews.size(); i++) {
-                Review r = reviews.get(i);
-                String safeComment = "\"" + r.getComment() + "\"";
-                String line = r.getReviewId() + "," + r.getProductId() + "," + 
-                              r.getCustomerId() + "," + r.getRating() + "," + safeComment;
-                bw.write(line);
-                bw.newLine();
+            rows.write(bw);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return temp;
+    }
+
+    // Renames temp over filename, atomically where the file system supports it.
+    private static void replaceFile(Path temp, String filename) throws IOException {
+        Path target = Paths.get(filename);
+        try {
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
             }
-            System.out.println("Reviews saved.");
-        } catch (IOException e) { System.out.println("Error saving reviews: " + e.getMessage()); }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static boolean isIndexOf(CsvOffsetIndex index, String filename) {
+        return index != null && Paths.get(index.getFilename()).toAbsolutePath().normalize()
+                .equals(Paths.get(filename).toAbsolutePath().normalize());
+    }
+
+    // Index of temp, which is about to replace index's file, under that file's name.
+    private CsvOffsetIndex rebuildIndex(Path temp, CsvOffsetIndex index, String kind) throws IOException {
+        try {
+            return CsvOffsetIndex.build(temp.toString(), new LoadReport(index.getFilename()),
+                    new CorruptionReporter(log, kind, CORRUPT_LINE_SAMPLES)).renamed(index.getFilename());
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
     }
     
     // ================= CORE OPERATIONS ================= //
    
     // Adds a product to the BST. Time Complexity: O(log n)
+    // With off-heap products the stored object is a ColumnarProduct copy of product.
     public void addProduct(Product product) {
+        Product previous = products.find(product.getProductId());
+        stockIndex.untrack(previous);
+        ProductColumns columns = productColumns;
+        if (columns != null && !(product instanceof ColumnarProduct)) {
+            columns.release(previous);
+            product = columns.add(product.getProductId(), product.getName(), product.getPrice(), product.getStock());
+        }
         products.insert(product.getProductId(), product);
-        System.out.println("Product added: " + product.getName());
+        stockIndex.track(product);
+        productText.index(product.getProductId(), product.getProductId(), 0, product.getName());
+        catalog.put(product.getProductId(), product.getPrice(), reviewText.averageRating(product.getProductId()));
+        if (log.isEnabled(LogLevel.INFO)) log.log(LogLevel.INFO, "Product added: " + product.getName());
     }
     
     // Removes a product from the BST. Time Complexity: O(log n)
     public boolean removeProduct(int productId) {
+        Product previous = products.find(productId);
+        stockIndex.untrack(previous);
+        ProductColumns columns = productColumns;
+        if (columns != null) columns.release(previous);
+        productText.remove(productId);
+        catalog.remove(productId);
         boolean deleted = products.delete(productId);
-        if (deleted) System.out.println("Product removed.");
-        else System.out.println("Product not found.");
+        log.log(LogLevel.INFO, deleted ? "Product removed." : "Product not found.");
         return deleted;
     }
     
     // Search O(log n) then update details.
     public boolean updateProduct(int productId, String newName, double newPrice, int newStock) {
-        Product product = findProductById(productId);
+        Product product = products.find(productId);
         if (product != null) {
-            product.setName(newName);
-            product.setPrice(newPrice);
-            product.setStock(newStock);
-            System.out.println("Product updated.");
+            double oldPrice;
+            synchronized (product) { // Apply all three fields as one update
+                oldPrice = product.getPrice();
+                product.setName(newName);
+                product.setPrice(newPrice);
+                product.setStock(newStock);
+            }
+            products.changed(productId, product);
+            productText.index(productId, productId, 0, newName);
+            catalog.setPrice(productId, newPrice);
+            if (oldPrice != newPrice && changes.hasListeners()) {
+                changes.publish(ChangeEvent.priceChanged(productId, oldPrice, newPrice));
+            }
+            log.log(LogLevel.INFO, "Product updated.");
             return true;
         }
-        System.out.println("Product not found.");
+        log.log(LogLevel.INFO, "Product not found.");
         return false;
     }
     
     // Performs Binary Search on the Tree.
     public Product findProductById(int productId) {
-        return products.find(productId);
+        long start = System.nanoTime();
+        try {
+            return products.find(productId);
+        } finally {
+            metrics.record(Operation.FIND_PRODUCT, start);
+        }
     }
     
-    // Traverses all products to find those with 0 stock.
+    // O(k) for k out-of-stock products: read from the live StockIndex, in ascending ID order.
     public CustomLinkedList<Product> getOutOfStockProducts() {
-        CustomLinkedList<Product> outOfStock = new CustomLinkedList<>();
-        CustomLinkedList<Product> all = products.getAll();
-        for (int i = 0; i < all.size(); i++) {
-            Product p = all.get(i);
-            if (p.isOutOfStock()) {
-                outOfStock.add(p);
-            }
+        long start = System.nanoTime();
+        try {
+            return stockIndex.getOutOfStock();
+        } finally {
+            metrics.record(Operation.OUT_OF_STOCK_PRODUCTS, start);
         }
-        return outOfStock;
+    }
+    
+    // Products with stock at or below the low-stock threshold, in ascending ID order.
+    public CustomLinkedList<Product> getLowStockProducts() {
+        return stockIndex.getLowStock();
+    }
+    
+    public int getLowStockThreshold() {
+        return stockIndex.getThreshold();
+    }
+    
+    // Rebuilds the low-stock set for the new threshold (O(n)).
+    public void setLowStockThreshold(int threshold) {
+        stockIndex.setThreshold(threshold, products.getAll());
+    }
+    
+    // Registers listener for alerts whenever a product's stock drops to or below the threshold.
+    public void subscribeLowStock(LowStockListener listener) {
+        lowStockSubscribers.add(listener);
+    }
+    
+    public void unsubscribeLowStock(LowStockListener listener) {
+        lowStockSubscribers.remove(listener);
     }
    
     public void registerCustomer(Customer customer) {
         customers.insert(customer.getCustomerId(), customer);
-        System.out.println("Customer registered: " + customer.getName());
+        if (log.isEnabled(LogLevel.INFO)) log.log(LogLevel.INFO, "Customer registered: " + customer.getName());
     }
     
     public Customer findCustomerById(int customerId) {
-        return customers.find(customerId);
+        long start = System.nanoTime();
+        try {
+            return customers.find(customerId);
+        } finally {
+            metrics.record(Operation.FIND_CUSTOMER, start);
+        }
     }
     
     // Places order and calculates total price dynamically based on current product prices.
+    // Stock for all line items is reserved all-or-nothing before the order is recorded;
+    // a product listed n times in the order reserves n units.
     public boolean placeOrder(Order order) {
-        Customer customer = findCustomerById(order.getCustomerId());
-        if (customer != null) {
-            double calculatedTotal = 0.0;
-            CustomLinkedList<Integer> pIds = order.getProductIds();
-            for (int i = 0; i < pIds.size(); i++) {
-                int pid = pIds.get(i);
-                Product p = findProductById(pid); // O(log n) lookup per product
-                if (p != null) {
-                    calculatedTotal += p.getPrice();
-                }
-            }
-            order.setTotalPrice(calculatedTotal);
+        long start = System.nanoTime();
+        try {
+            Customer customer = customers.find(order.getCustomerId());
+            if (customer != null) {
+                int[] ids = sortedProductIds(order); // Groups repeated IDs into quantities
+                Product[] lineProducts = new Product[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    // O(log n) lookup per distinct product; repeated IDs reuse the previous lookup
+                    lineProducts[i] = (i > 0 && ids[i] == ids[i - 1]) ? lineProducts[i - 1] : products.find(ids[i]);
+                }
+                OrderLines lines = reserveStock(ids, lineProducts);
+                if (lines == null) {
+                    log.log(LogLevel.INFO, "Insufficient stock. Order not placed.");
+                    return false;
+                }
+                double calculatedTotal = lines.getTotal();
+                order.setLines(lines);
+                order.setTotalPrice(calculatedTotal);
             
-            orders.insert(order.getOrderId(), order);
-            customer.addOrder(order);
+                orders.insert(order.getOrderId(), order);
+                statusIndex.add(order);
+                CoPurchaseIndex pairs = coPurchase;
+                if (pairs != null) pairs.record(order);
+                customer.addOrder(order);
+                recordAddedOrder(customer.getCustomerId(), order);
+                if (changes.hasListeners()) changes.publish(ChangeEvent.orderPlaced(order));
             
-            System.out.println("Order placed. Total: $" + calculatedTotal);
-            return true;
+                if (log.isEnabled(LogLevel.INFO)) log.log(LogLevel.INFO, "Order placed. Total: $" + calculatedTotal);
+                return true;
+            }
+            log.log(LogLevel.INFO, "Customer not found.");
+            return false;
+        } finally {
+            metrics.record(Operation.PLACE_ORDER, start);
         }
-        System.out.println("Customer not found.");
-        return false;
     }
     
+    /**
+     * Places a burst of orders in one pass and returns one OrderResult per input order,
+     * in the same order. Each order is still all-or-nothing on stock, and an order ID that
+     * repeats within the batch is placed at most once (copies after the placed one get
+     * DUPLICATE_ORDER_ID; a copy after a failed one is tried as usual). The batch:
+     * - looks up every distinct customer and product once (sorted, then binary searched per line),
+     * - inserts all placed orders into the order tree with a single insertAll call,
+     * - appends to each customer's history once per customer,
+     * - logs one summary line instead of one per order.
+     */
+    public CustomLinkedList<OrderResult> placeOrders(CustomLinkedList<Order> batch) {
+        long start = System.nanoTime();
+        try {
+            // Resolve every distinct customer and product up front
+            int[] orderIds = new int[batch.size()];
+            int[] customerIds = new int[batch.size()];
+            int lineCount = 0;
+            int n = 0;
+            for (Order o : batch) {
+                orderIds[n] = o.getOrderId();
+                customerIds[n++] = o.getCustomerId();
+                lineCount += o.getProductIds().size();
+            }
+            int[] productIds = new int[lineCount];
+            n = 0;
+            for (Order o : batch) {
+                for (int pid : o.getProductIds()) productIds[n++] = pid;
+            }
+            orderIds = distinctSorted(orderIds);
+            boolean[] seenOrderIds = new boolean[orderIds.length];
+            customerIds = distinctSorted(customerIds);
+            productIds = distinctSorted(productIds);
+            Customer[] batchCustomers = new Customer[customerIds.length];
+            for (int i = 0; i < customerIds.length; i++) batchCustomers[i] = customers.find(customerIds[i]);
+            Product[] batchProducts = new Product[productIds.length];
+            for (int i = 0; i < productIds.length; i++) batchProducts[i] = products.find(productIds[i]);
+        
+            // Price and reserve each order against the resolved entities
+            CustomLinkedList<OrderResult> results = new CustomLinkedList<>();
+            int[] placedKeys = new int[batch.size()];
+            CustomLinkedList<Order> placed = new CustomLinkedList<>();
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            CustomLinkedList<Order>[] placedByCustomer = new CustomLinkedList[customerIds.length];
+            for (Order o : batch) {
+                int id = Arrays.binarySearch(orderIds, o.getOrderId());
+                if (seenOrderIds[id]) { // Would reserve stock twice for one stored order
+                    results.add(new OrderResult(o.getOrderId(), OrderResult.Outcome.DUPLICATE_ORDER_ID, 0.0));
+                    continue;
+                }
+                int c = Arrays.binarySearch(customerIds, o.getCustomerId());
+                if (batchCustomers[c] == null) {
+                    results.add(new OrderResult(o.getOrderId(), OrderResult.Outcome.CUSTOMER_NOT_FOUND, 0.0));
+                    continue;
+                }
+                int[] ids = sortedProductIds(o);
+                Product[] lineProducts = new Product[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    lineProducts[i] = batchProducts[Arrays.binarySearch(productIds, ids[i])];
+                }
+                OrderLines lines = reserveStock(ids, lineProducts);
+                if (lines == null) {
+                    results.add(new OrderResult(o.getOrderId(), OrderResult.Outcome.INSUFFICIENT_STOCK, 0.0));
+                    continue;
+                }
+                double total = lines.getTotal();
+                o.setLines(lines);
+                o.setTotalPrice(total);
+                seenOrderIds[id] = true; // Only placed orders claim their ID
+                placedKeys[placed.size()] = o.getOrderId();
+                placed.add(o);
+                if (placedByCustomer[c] == null) placedByCustomer[c] = new CustomLinkedList<>();
+                placedByCustomer[c].add(o);
+                results.add(new OrderResult(o.getOrderId(), OrderResult.Outcome.PLACED, total));
+            }
+        
+            // Bulk writes: one tree call, one history append per customer
+            orders.insertAll(Arrays.copyOf(placedKeys, placed.size()), placed);
+            OrderStatusIndex byStatus = statusIndex;
+            for (Order o : placed) byStatus.add(o);
+            CoPurchaseIndex pairs = coPurchase;
+            if (pairs != null) {
+                for (Order o : placed) pairs.record(o);
+            }
+            for (int c = 0; c < customerIds.length; c++) {
+                if (placedByCustomer[c] == null) continue;
+                batchCustomers[c].addOrders(placedByCustomer[c]);
+                for (Order o : placedByCustomer[c]) recordAddedOrder(customerIds[c], o);
+            }
+            if (changes.hasListeners()) {
+                for (Order o : placed) changes.publish(ChangeEvent.orderPlaced(o));
+            }
+        
+            if (log.isEnabled(LogLevel.INFO)) log.log(LogLevel.INFO, "Batch placed: " + placed.size() + "/" + batch.size() + " orders.");
+            return results;
+        } finally {
+            metrics.record(Operation.PLACE_ORDERS, start);
+        }
+    }
+    
+    // Cancels the order and returns its reserved units to stock (only on the first cancel).
     public boolean cancelOrder(int orderId) {
-        Order order = findOrderById(orderId);
-        if (order != null) {
-            order.cancelOrder();
-            System.out.println("Order cancelled.");
-            return true;
+        long start = System.nanoTime();
+        try {
+            Order order = lookupOrder(orderId);
+            if (order != null) {
+                boolean cancelled;
+                synchronized (order) {
+                    int oldCode = order.getStatusCode();
+                    cancelled = order.cancelOrder();
+                    if (cancelled) statusIndex.moved(order, oldCode);
+                }
+                if (cancelled) {
+                    releaseStock(order);
+                    refreshCustomerSpend(order);
+                    if (changes.hasListeners()) changes.publish(ChangeEvent.orderCancelled(order));
+                    log.log(LogLevel.INFO, "Order cancelled.");
+                } else {
+                    log.log(LogLevel.INFO, "Order already cancelled.");
+                }
+                return true;
+            }
+            log.log(LogLevel.INFO, "Order not found.");
+            return false;
+        } finally {
+            metrics.record(Operation.CANCEL_ORDER, start);
         }
-        System.out.println("Order not found.");
-        return false;
     }
     
     public boolean updateOrderStatus(int orderId, String newStatus) {
-        Order order = findOrderById(orderId);
-        if (order != null) {
-            order.updateStatus(newStatus);
-            System.out.println("Order status updated!");
-            return true;
+        long start = System.nanoTime();
+        try {
+            if ("Cancelled".equalsIgnoreCase(newStatus)) {
+                return cancelOrder(orderId); // Route through cancel so stock is released
+            }
+            Order order = lookupOrder(orderId);
+            if (order != null) {
+                String oldStatus;
+                synchronized (order) {
+                    int oldCode = order.getStatusCode();
+                    if (OrderStatus.isCancelled(oldCode)) {
+                        log.log(LogLevel.INFO, "Cancelled orders cannot be reinstated.");
+                        return false;
+                    }
+                    oldStatus = order.updateStatus(newStatus);
+                    statusIndex.moved(order, oldCode);
+                }
+                if (!Objects.equals(oldStatus, newStatus) && changes.hasListeners()) {
+                    changes.publish(ChangeEvent.orderStatusChanged(order, oldStatus, newStatus));
+                }
+                log.log(LogLevel.INFO, "Order status updated!");
+                return true;
+            }
+            log.log(LogLevel.INFO, "Order not found.");
+            return false;
+        } finally {
+            metrics.record(Operation.UPDATE_ORDER_STATUS, start);
         }
-        System.out.println("Order not found.");
-        return false;
+    }
+    
+    // Re-counts order in its customer's lifetime spend after it was cancelled.
+    private void refreshCustomerSpend(Order order) {
+        Customer customer = customers.find(order.getCustomerId());
+        if (customer != null) customer.refreshOrder(order);
+    }
+    
+    // A customer's orders, most recent first: skips offset, returns at most limit.
+    public CustomLinkedList<Order> getRecentOrders(int customerId, int offset, int limit) {
+        Customer c = customers.find(customerId);
+        return c == null ? new CustomLinkedList<>() : c.getRecentOrders(offset, limit);
+    }
+    
+    // A customer's orders dated within [startDate, endDate], most recent first.
+    public CustomLinkedList<Order> getCustomerOrdersBetweenDates(int customerId, String startDate, String endDate, int offset, int limit) {
+        Customer c = customers.find(customerId);
+        return c == null ? new CustomLinkedList<>() : c.getOrdersBetweenDates(startDate, endDate, offset, limit);
+    }
+    
+    // Orders whose status is exactly status, in ascending ID order; O(k) for k matches.
+    public CustomLinkedList<Order> getOrdersByStatus(String status) {
+        long start = System.nanoTime();
+        try {
+            ensureAllOrdersLoaded();
+            return statusIndex.list(status);
+        } finally {
+            metrics.record(Operation.ORDERS_BY_STATUS, start);
+        }
+    }
+    
+    // Number of orders in status; O(1) (after the one-off full read in lazy mode).
+    public int countOrdersByStatus(String status) {
+        ensureAllOrdersLoaded();
+        return statusIndex.count(status);
     }
     
     public Order findOrderById(int orderId) {
-        return orders.find(orderId);
+        long start = System.nanoTime();
+        try {
+            return lookupOrder(orderId);
+        } finally {
+            metrics.record(Operation.FIND_ORDER, start);
+        }
+    }
+    
+    // Order's product IDs as a sorted array, so equal IDs are adjacent.
+    static int[] sortedProductIds(Order order) {
+        CustomLinkedList<Integer> pIds = order.getProductIds();
+        int[] ids = new int[pIds.size()];
+        int n = 0;
+        for (int pid : pIds) ids[n++] = pid;
+        Arrays.sort(ids);
+        return ids;
+    }
+    
+    // Sorted copy of values with duplicates removed.
+    private static int[] distinctSorted(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (n == 0 || sorted[i] != sorted[n - 1]) sorted[n++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, n);
+    }
+    
+    /**
+     * Reserves stock for every line all-or-nothing and returns the lines with the unit
+     * prices charged, or null if some line is short (lines reserved so far are released).
+     * ids is sorted and lineProducts[i] is the product for ids[i], or null for unknown
+     * products (not reserved, and priced at 0).
+     */
+    static OrderLines reserveStock(int[] ids, Product[] lineProducts) {
+        int lines = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) lines++;
+        }
+        int[] lineIds = new int[lines];
+        int[] quantities = new int[lines];
+        double[] unitPrices = new double[lines];
+        int line = 0;
+        for (int i = 0; i < ids.length; ) {
+            int j = i;
+            while (j < ids.length && ids[j] == ids[i]) j++;
+            int quantity = j - i;
+            Product p = lineProducts[i];
+            if (p != null) {
+                if (!p.reduceStock(quantity)) { // CAS reservation, no global lock
+                    releaseStock(ids, lineProducts, i); // Roll back earlier lines
+                    return null;
+                }
+                unitPrices[line] = p.getPrice();
+            }
+            lineIds[line] = ids[i];
+            quantities[line++] = quantity;
+            i = j;
+        }
+        return new OrderLines(lineIds, quantities, unitPrices);
+    }
+    
+    // Releases the units reserved for lines [0, end) of a reserveStock call.
+    private static void releaseStock(int[] ids, Product[] lineProducts, int end) {
+        for (int i = 0; i < end; ) {
+            int j = i;
+            while (j < end && ids[j] == ids[i]) j++;
+            if (lineProducts[i] != null) lineProducts[i].releaseStock(j - i);
+            i = j;
+        }
+    }
+    
+    private void releaseStock(Order order) {
+        OrderLines lines = order.getLines();
+        if (lines != null) { // Already grouped by product
+            for (int i = 0; i < lines.size(); i++) {
+                Product p = products.find(lines.getProductId(i));
+                if (p != null) p.releaseStock(lines.getQuantity(i));
+            }
+            return;
+        }
+        int[] ids = sortedProductIds(order);
+        for (int i = 0; i < ids.length; ) {
+            int j = i;
+            while (j < ids.length && ids[j] == ids[i]) j++;
+            Product p = products.find(ids[i]);
+            if (p != null) p.releaseStock(j - i);
+            i = j;
+        }
     }
     
     // Validates rating range (1-5) before adding.
     public boolean addReview(int productId, int customerId, int rating, String comment) {
-        if (rating < 1 || rating > 5) {
-            System.out.println("Error: Rating must be between 1 and 5.");
+        long start = System.nanoTime();
+        try {
+            if (rating < 1 || rating > 5) {
+                log.log(LogLevel.INFO, "Error: Rating must be between 1 and 5.");
+                return false;
+            }
+            Product product = products.find(productId);
+            if (product != null) {
+                Review review;
+                reviewsLock.writeLock().lock();
+                try {
+                    int reviewId = nextReviewId++; // Simple auto-increment, atomic under the lock
+                    review = new Review(reviewId, productId, customerId, rating, comment);
+                    reviews.add(review);
+                    reindexReview(review);
+                } finally {
+                    reviewsLock.writeLock().unlock();
+                }
+                product.addReview(review);
+                recordAddedReview(productId, review);
+                if (changes.hasListeners()) changes.publish(ChangeEvent.reviewAdded(review));
+                log.log(LogLevel.INFO, "Review added.");
+                return true;
+            }
+            log.log(LogLevel.INFO, "Product not found.");
             return false;
+        } finally {
+            metrics.record(Operation.ADD_REVIEW, start);
         }
-        Product product = findProductById(productId);
-        if (product != null) {
-            int reviewId = reviews.size() + 1; // Simple auto-increment
-            Review review = new Review(reviewId, productId, customerId, rating, comment);
-            reviews.add(review);
-            product.addReview(review);
-            System.out.println("Review added.");
-            return true;
-        }
-        System.out.println("Product not found.");
-        return false;
     }
 
     public boolean editReview(int reviewId, int newRating, String newComment) {
-        for (int i = 0; i < reviews.size(); i++) {
-            if (reviews.get(i).getReviewId() == reviewId) {
-                Review r = reviews.get(i);
+        if (newRating < 1 || newRating > 5) {
+            log.log(LogLevel.INFO, "Error: Rating must be between 1 and 5.");
+            return false;
+        }
+        Review r = findReviewById(reviewId);
+        if (r != null) {
+            int oldRating = r.getRating();
+            Product product = products.find(r.getProductId());
+            if (product != null) {
+                product.updateReviewRating(r, newRating); // Keeps rating buckets in sync
+            } else {
                 r.setRating(newRating);
-                r.setComment(newComment);
-                System.out.println("Review " + reviewId + " updated.");
-                return true;
             }
+            r.setComment(newComment);
+            reindexReview(r);
+            if (changes.hasListeners()) changes.publish(ChangeEvent.reviewEdited(r, oldRating));
+            if (log.isEnabled(LogLevel.INFO)) log.log(LogLevel.INFO, "Review " + reviewId + " updated.");
+            return true;
         }
-        System.out.println("Review not found");
+        log.log(LogLevel.INFO, "Review not found");
         return false;
     }
     
+    private static void indexReview(TextIndex text, Review r) {
+        text.index(r.getReviewId(), r.getProductId(), r.getRating(), r.getComment());
+    }
+    
+    // Indexes a new or edited review and refreshes its product's rating for queries.
+    private void reindexReview(Review r) {
+        TextIndex text = reviewText;
+        indexReview(text, r);
+        catalog.setRating(r.getProductId(), text.averageRating(r.getProductId()));
+    }
+    
+    /**
+     * Products whose name or reviews contain the query terms, best first (see ProductSearch
+     * for ranking). "term*" is a prefix query; matchAll requires every term (AND), otherwise
+     * any term (OR).
+     */
+    public CustomLinkedList<Product> searchProducts(String query, boolean matchAll, int limit) {
+        long start = System.nanoTime();
+        try {
+            ensureAllReviewsLoaded();
+            CustomLinkedList<Product> result = new CustomLinkedList<>();
+            for (int id : ProductSearch.search(productText, reviewText, query, matchAll, limit)) {
+                Product p = products.find(id);
+                if (p != null) result.add(p);
+            }
+            return result;
+        } finally {
+            metrics.record(Operation.SEARCH_PRODUCTS, start);
+        }
+    }
+    
+    /**
+     * Runs a compound product query (see ProductQuery), e.g. price range, in stock and
+     * rating >= 4, sorted by rating, page 3. The planner picks the most selective index.
+     */
+    public CustomLinkedList<Product> queryProducts(ProductQuery query) {
+        long start = System.nanoTime();
+        try {
+            if (query.usesRating()) ensureAllReviewsLoaded();
+            return new ProductQueryEngine(catalog, stockIndex, products).execute(query);
+        } finally {
+            metrics.record(Operation.QUERY_PRODUCTS, start);
+        }
+    }
+    
+    // Describes the access path queryProducts would use for query.
+    public String explainProductQuery(ProductQuery query) {
+        if (query.usesRating()) ensureAllReviewsLoaded();
+        return new ProductQueryEngine(catalog, stockIndex, products).explain(query);
+    }
+    
+    // AND search.
+    public CustomLinkedList<Product> searchProducts(String query, int limit) {
+        return searchProducts(query, true, limit);
+    }
+    
+    private Review findReviewById(int reviewId) {
+        ensureAllReviewsLoaded();
+        reviewsLock.readLock().lock();
+        try {
+            for (Review r : reviews) {
+                if (r.getReviewId() == reviewId) return r;
+            }
+            return null;
+        } finally {
+            reviewsLock.readLock().unlock();
+        }
+    }
+    
     public CustomLinkedList<Review> getReviewsByCustomer(int customerId) {
         CustomLinkedList<Review> customerReviews = new CustomLinkedList<>();
-        for (int i = 0; i < reviews.size(); i++) {
-            Review r = reviews.get(i);
-            if (r.getCustomerId() == customerId) {
-                customerReviews.add(r);
+        ensureAllReviewsLoaded();
+        reviewsLock.readLock().lock();
+        try {
+            for (Review r : reviews) {
+                if (r.getCustomerId() == customerId) {
+                    customerReviews.add(r);
+                }
             }
+        } finally {
+            reviewsLock.readLock().unlock();
         }
         return customerReviews;
     }
     
     // ================= ADVANCED QUERIES ================= //
+    
+    /**
+     * Revenue per day, customer and product plus basket averages for the orders dated within
+     * [startDate, endDate] (null = open), computed with fork-join over a snapshot of the orders.
+     */
+    public OrderAnalytics getOrderAnalytics(String startDate, String endDate) {
+        long start = System.nanoTime();
+        try {
+            ensureAllOrdersLoaded();
+            CustomLinkedList<Order> all = orders.getAll();
+            Order[] snapshot = new Order[all.size()];
+            int n = 0;
+            for (Order o : all) snapshot[n++] = o;
+            return OrderAnalytics.compute(snapshot, startDate, endDate, id -> {
+                Product p = products.find(id);
+                return p == null ? 0.0 : p.getPrice();
+            });
+        } finally {
+            metrics.record(Operation.ORDER_ANALYTICS, start);
+        }
+    }
+    
+    public OrderAnalytics getOrderAnalytics() {
+        return getOrderAnalytics(null, null);
+    }
+    
+    /**
+     * Up to n products most often bought together with productId, strongest first; O(n) once
+     * the co-purchase index exists. Counts are approximate (see CoPurchaseIndex), include
+     * cancelled orders, and products removed since are skipped.
+     */
+    public CustomLinkedList<Product> getFrequentlyBoughtTogether(int productId, int n) {
+        long start = System.nanoTime();
+        try {
+            CustomLinkedList<Product> result = new CustomLinkedList<>();
+            for (int id : coPurchaseIndex().top(productId, n)) {
+                Product p = products.find(id);
+                if (p != null) result.add(p);
+            }
+            return result;
+        } finally {
+            metrics.record(Operation.BOUGHT_TOGETHER, start);
+        }
+    }
+    
+    // Lazy mode builds the index from every order on first use; orders placed while it is
+    // being built are not counted.
+    private CoPurchaseIndex coPurchaseIndex() {
+        CoPurchaseIndex index = coPurchase;
+        if (index != null) return index;
+        ensureAllOrdersLoaded();
+        synchronized (lazyLock) {
+            if (coPurchase == null) {
+                CoPurchaseIndex built = new CoPurchaseIndex();
+                for (Order o : orders.getAll()) built.record(o);
+                coPurchase = built;
+            }
+            return coPurchase;
+        }
+    }
 
     // Linear search O(n) through product list to find items in range.
     public CustomLinkedList<Product> getProductsInPriceRange(double min, double max) {
-        CustomLinkedList<Product> result = new CustomLinkedList<>();
-        CustomLinkedList<Product> all = products.getAll(); // Flatten tree to list
-        for (int i = 0; i < all.size(); i++) {
-            Product p = all.get(i);
-            if (p.getPrice() >= min && p.getPrice() <= max) {
-                result.add(p);
+        long start = System.nanoTime();
+        try {
+            ProductColumns columns = productColumns;
+            if (columns != null) return columns.priceBetween(min, max); // Scans the price column
+            CustomLinkedList<Product> result = new CustomLinkedList<>();
+            CustomLinkedList<Product> all = products.getAll(); // Flatten tree to list
+            for (Product p : all) { // Iterator, not get(i): get walks the list from the head
+                double price = p.getPrice();
+                if (price >= min && price <= max) {
+                    result.add(p);
+                }
             }
+            return result;
+        } finally {
+            metrics.record(Operation.PRODUCTS_IN_PRICE_RANGE, start);
         }
-        return result;
     }
 
     // Implements Selection Sort O(n^2) to sort customers alphabetically by name.
@@ -458,78 +1814,74 @@ public class ECommerceSystem {
         return sorted;
     }
 
-    // Filters reviews for a product, sorts them by rating (Selection Sort),
-    // then retrieves the associated Customer objects.
+    // Retrieves the Customers who reviewed a product, High Rating -> Low Rating.
+    // Reviews are already bucketed by rating on the Product, so no sorting is needed.
     public CustomLinkedList<Customer> getCustomersWhoReviewedProduct(int productId) {
-        Product p = findProductById(productId);
+        return getCustomersWhoReviewedProduct(productId, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Paginated variant for the UI: returns at most limit reviewers, skipping the
+     * first offset reviews. Costs O(offset + limit) plus one O(log n) customer
+     * lookup per returned entry.
+     */
+    public CustomLinkedList<Customer> getCustomersWhoReviewedProduct(int productId, int offset, int limit) {
+        Product p = products.find(productId);
         CustomLinkedList<Customer> result = new CustomLinkedList<>();
         
-        if (p == null) return result;
+        if (p == null || offset < 0 || limit <= 0) return result;
         
-        CustomLinkedList<Review> prodReviews = p.getReviews();
-        CustomLinkedList<Review> tempReviews = new CustomLinkedList<>();
-        for (int i = 0; i < prodReviews.size(); i++) tempReviews.add(prodReviews.get(i));
-        
-        // Sort Reviews: High Rating -> Low Rating
-        CustomLinkedList<Review> sortedReviews = new CustomLinkedList<>();
-        while(!tempReviews.isEmpty()) {
-            Review maxRev = tempReviews.get(0);
-            int maxIdx = 0;
-            for(int i=1; i<tempReviews.size(); i++) {
-                if(tempReviews.get(i).getRating() > maxRev.getRating()) {
-                    maxRev = tempReviews.get(i);
-                    maxIdx = i;
-                }
-            }
-            sortedReviews.add(maxRev);
-            tempReviews.remove(maxIdx);
-        }
-        
-        // Fetch Customers corresponding to sorted reviews
-        for(int i=0; i<sortedReviews.size(); i++) {
-            Customer c = findCustomerById(sortedReviews.get(i).getCustomerId());
-            if(c != null) result.add(c);
+        for (Review r : p.getReviewsByRating(offset, limit)) {
+            Customer c = customers.find(r.getCustomerId());
+            if (c != null) result.add(c);
         }
         return result;
     }
 
     // Calculates ratings for all products and returns top 3 using Selection Sort.
     public CustomLinkedList<Product> getTop3ProductsByRating() {
-        CustomLinkedList<Product> all = products.getAll();
-        CustomLinkedList<Product> rated = new CustomLinkedList<>();
-        for (int i = 0; i < all.size(); i++) {
-            Product p = all.get(i);
-            if (!p.getReviews().isEmpty()) rated.add(p);
-        }
+        long start = System.nanoTime();
+        try {
+            CustomLinkedList<Product> all = products.getAll();
+            CustomLinkedList<Product> rated = new CustomLinkedList<>();
+            for (Product p : all) { // Iterator, not get(i): get walks the list from the head
+                if (!p.getReviews().isEmpty()) rated.add(p);
+            }
         
-        CustomLinkedList<Product> top3 = new CustomLinkedList<>();
-        while (!rated.isEmpty() && top3.size() < 3) {
-            Product maxP = rated.get(0);
-            int maxIdx = 0;
-            for (int i = 1; i < rated.size(); i++) {
-                if (rated.get(i).getAverageRating() > maxP.getAverageRating()) {
-                    maxP = rated.get(i);
-                    maxIdx = i;
+            CustomLinkedList<Product> top3 = new CustomLinkedList<>();
+            while (!rated.isEmpty() && top3.size() < 3) {
+                Product maxP = null;
+                for (Product p : rated) {
+                    if (maxP == null || p.getAverageRating() > maxP.getAverageRating()) {
+                        maxP = p;
+                    }
                 }
+                top3.add(maxP);
+                rated.removeItem(maxP);
             }
-            top3.add(maxP);
-            rated.remove(maxIdx);
+            return top3;
+        } finally {
+            metrics.record(Operation.TOP3_PRODUCTS_BY_RATING, start);
         }
-        return top3;
     }
     
     // Filters orders by performing String comparison on YYYY-MM-DD format.
     public CustomLinkedList<Order> getOrdersBetweenDates(String startDate, String endDate) {
-        CustomLinkedList<Order> result = new CustomLinkedList<>();
-        CustomLinkedList<Order> all = orders.getAll();
-        for (int i = 0; i < all.size(); i++) {
-            Order o = all.get(i);
-            String orderDate = o.getOrderDate();
-            if (orderDate.compareTo(startDate) >= 0 && orderDate.compareTo(endDate) <= 0) {
-                result.add(o);
+        long start = System.nanoTime();
+        try {
+            CustomLinkedList<Order> result = new CustomLinkedList<>();
+            ensureAllOrdersLoaded();
+            CustomLinkedList<Order> all = orders.getAll();
+            for (Order o : all) { // Iterator, not get(i): get walks the list from the head
+                String orderDate = o.getOrderDate();
+                if (orderDate.compareTo(startDate) >= 0 && orderDate.compareTo(endDate) <= 0) {
+                    result.add(o);
+                }
             }
+            return result;
+        } finally {
+            metrics.record(Operation.ORDERS_BETWEEN_DATES, start);
         }
-        return result;
     }
     
     // Intersection algorithm: Finds products rated > 4.0 by both Customer A and Customer B.
@@ -541,7 +1893,7 @@ public class ECommerceSystem {
         for (int i = 0; i < r1.size(); i++) {
             for (int j = 0; j < r2.size(); j++) {
                 if (r1.get(i).getProductId() == r2.get(j).getProductId()) {
-                    Product p = findProductById(r1.get(i).getProductId());
+                    Product p = products.find(r1.get(i).getProductId());
                     if (p != null && p.getAverageRating() > 4.0) {
                         boolean exists = false;
                         for(int k=0; k<common.size(); k++) 
@@ -574,6 +1926,7 @@ public class ECommerceSystem {
     
     public void displayAllOrders() {
         System.out.println("\n===== ALL ORDERS (Sorted by ID) =====");
+        ensureAllOrdersLoaded();
         CustomLinkedList<Order> all = orders.getAll();
         for (int i = 0; i < all.size(); i++) {
             System.out.println(all.get(i));
@@ -0,0 +1,43 @@
+package project;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// RecordCodecs for the entities DiskBackedStore can hold.
+public final class EntityCodecs {
+
+    private EntityCodecs() {
+    }
+
+    // productId, name, price, stock
+    public static final RecordCodec<Product> PRODUCT = new RecordCodec<Product>() {
+        @Override
+        public void write(Product p, DataOutput out) throws IOException {
+            out.writeInt(p.getProductId());
+            out.writeUTF(p.getName());
+            out.writeDouble(p.getPrice());
+            out.writeInt(p.getStock());
+        }
+
+        @Override
+        public Product read(DataInput in) throws IOException {
+            return new Product(in.readInt(), in.readUTF(), in.readDouble(), in.readInt());
+        }
+    };
+
+    // customerId, name, email
+    public static final RecordCodec<Customer> CUSTOMER = new RecordCodec<Customer>() {
+        @Override
+        public void write(Customer c, DataOutput out) throws IOException {
+            out.writeInt(c.getCustomerId());
+            out.writeUTF(c.getName());
+            out.writeUTF(c.getEmail());
+        }
+
+        @Override
+        public Customer read(DataInput in) throws IOException {
+            return new Customer(in.readInt(), in.readUTF(), in.readUTF());
+        }
+    };
+}
@@ -0,0 +1,37 @@
+package project;
+
+/**
+ * Ordered int-keyed storage used by ECommerceSystem for products, customers and orders.
+ * Implementations: BST (single-threaded), ConcurrentBST (read-write locked),
+ * SkipListStore (lock-free) and DiskBackedStore (data file behind an LRU cache).
+ */
+public interface EntityStore<T> {
+
+    // Inserts or replaces the value stored under key.
+    void insert(int key, T data);
+
+    // Returns the value for key, or null if absent.
+    T find(int key);
+
+    // Removes key; returns false if it was not present.
+    boolean delete(int key);
+
+    // Returns all values in ascending key order.
+    CustomLinkedList<T> getAll();
+
+    // Number of stored entries.
+    int size();
+
+    // Called after data, stored under key, was modified in place. Stores that keep values
+    // off the heap (DiskBackedStore) make sure the change is persisted; others ignore it.
+    default void changed(int key, T data) {
+    }
+
+    // Inserts values.get(i) under keys[i] for each i; stores may do this as one operation.
+    default void insertAll(int[] keys, CustomLinkedList<T> values) {
+        int i = 0;
+        for (T data : values) {
+            insert(keys[i++], data);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package project;
+
+/**
+ * One group of an OrderAnalytics aggregation: the orders in the group, the units (line
+ * items) they contain and their revenue.
+ */
+public final class GroupTotal<K> {
+
+    private final K key;
+    private final long orders;
+    private final long units;
+    private final double revenue;
+
+    public GroupTotal(K key, long orders, long units, double revenue) {
+        this.key = key;
+        this.orders = orders;
+        this.units = units;
+        this.revenue = revenue;
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    @Override
+    public String toString() {
+        return key + ": orders=" + orders + ", units=" + units + ", revenue=" + String.format("%.2f", revenue);
+    }
+}
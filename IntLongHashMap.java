@@ -0,0 +1,132 @@
+package project;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int -> long map (linear probing, backward-shift deletion).
+ * Holds DiskBackedStore's key -> record offset index and TextIndex's per-document tables
+ * at 12 bytes per slot instead of a boxed map entry per key. Not thread-safe.
+ */
+public class IntLongHashMap {
+
+    private static final long MISSING = -1;
+
+    private int[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+
+    public IntLongHashMap() {
+        this(16);
+    }
+
+    public IntLongHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9; // Fibonacci hashing spreads sequential IDs
+        return (h ^ (h >>> 16)) & (keys.length - 1);
+    }
+
+    // Returns the value for key, or -1 if absent.
+    public long get(int key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return MISSING;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != MISSING;
+    }
+
+    public void put(int key, long value) {
+        if ((size + 1) * 4 > keys.length * 3) grow();
+        int mask = keys.length - 1;
+        int i = slot(key);
+        while (used[i]) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    // Adds delta to key's value (an absent key counts as 0) and returns the sum.
+    public long add(int key, long delta) {
+        long current = get(key);
+        long sum = (current == MISSING ? 0 : current) + delta;
+        put(key, sum);
+        return sum;
+    }
+
+    // Removes key; returns false if it was not present.
+    public boolean remove(int key) {
+        int mask = keys.length - 1;
+        int i = slot(key);
+        while (used[i] && keys[i] != key) i = (i + 1) & mask;
+        if (!used[i]) return false;
+        // Shift later entries of the probe run back so lookups never stop early
+        int gap = i;
+        for (int j = (gap + 1) & mask; used[j]; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        used[gap] = false;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public interface EntryVisitor {
+        void visit(int key, long value);
+    }
+
+    // Visits every entry in table order (no allocation).
+    public void forEach(EntryVisitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) visitor.visit(keys[i], values[i]);
+        }
+    }
+
+    // All keys in ascending order.
+    public int[] sortedKeys() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) result[n++] = keys[i];
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new int[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) put(oldKeys[i], oldValues[i]);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package project;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Closed-loop load generator for RequestServer on localhost: each client thread holds one
+ * connection and sends its next request as soon as the previous response arrives, for a
+ * fixed duration after a warm-up. Reports throughput and per-command latency percentiles
+ * (client-side, including the network round trip).
+ *
+ * Request mix: 50% find-product, 20% find-customer, 15% recent-orders, 15% place-order
+ * (1-3 random products, fresh order IDs per client), over IDs 1..products / 1..customers.
+ *
+ * Usage:
+ *   java project.LoadGenerator [--port <p>] [--data-dir <dir>] [--clients <n>]
+ *                              [--seconds <s>] [--warmup <s>] [--products <n>] [--customers <n>]
+ * With --data-dir, the data is loaded into an in-process ECommerceSystem behind a
+ * RequestServer on a free port; otherwise the generator connects to --port.
+ */
+public class LoadGenerator {
+
+    private static final String[] COMMANDS = { "find-product", "find-customer", "recent-orders", "place-order" };
+    private static final int[] WEIGHTS = { 50, 20, 15, 15 }; // Percent
+
+    private final int port;
+    private final int clients;
+    private final int products;
+    private final int customers;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[COMMANDS.length];
+    private final AtomicLongArray failures = new AtomicLongArray(COMMANDS.length); // "fail" responses, e.g. out of stock
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    public LoadGenerator(int port, int clients, int products, int customers) {
+        this.port = port;
+        this.clients = clients;
+        this.products = products;
+        this.customers = customers;
+        for (int i = 0; i < latencies.length; i++) latencies[i] = new LatencyHistogram();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = 7070;
+        String dataDir = null;
+        int clients = 16, seconds = 10, warmup = 2, products = 1000, customers = 1000;
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 == args.length) usage(args[i]);
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--data-dir": dataDir = args[++i]; break;
+                case "--clients": clients = Integer.parseInt(args[++i]); break;
+                case "--seconds": seconds = Integer.parseInt(args[++i]); break;
+                case "--warmup": warmup = Integer.parseInt(args[++i]); break;
+                case "--products": products = Integer.parseInt(args[++i]); break;
+                case "--customers": customers = Integer.parseInt(args[++i]); break;
+                default: usage(args[i]);
+            }
+        }
+        RequestServer server = null;
+        if (dataDir != null) {
+            ECommerceSystem system = new ECommerceSystem(StorageMode.SKIP_LIST);
+            system.setLogSink(new ConsoleLogSink(System.err, LogLevel.WARN));
+            File dir = new File(dataDir);
+            system.loadAllFromCSV(new File(dir, "products.csv").getPath(), new File(dir, "customers.csv").getPath(),
+                    new File(dir, "orders.csv").getPath(), new File(dir, "reviews.csv").getPath());
+            server = new RequestServer(new BatchRunner(system, dir, System.out));
+            port = server.start(0);
+        }
+        try {
+            LoadGenerator generator = new LoadGenerator(port, clients, products, customers);
+            System.out.println(generator.run(warmup * 1000L, seconds * 1000L));
+        } finally {
+            if (server != null) server.close();
+        }
+    }
+
+    private static void usage(String arg) {
+        System.out.println("Unknown or incomplete argument: " + arg);
+        System.out.println("Usage: LoadGenerator [--port <p>] [--data-dir <dir>] [--clients <n>] [--seconds <s>]"
+                + " [--warmup <s>] [--products <n>] [--customers <n>]");
+        System.exit(2);
+    }
+
+    // Runs the clients for warmupMillis unrecorded, then measureMillis recorded; returns the report.
+    public String run(long warmupMillis, long measureMillis) throws InterruptedException {
+        Thread[] threads = new Thread[clients];
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            threads[i] = new Thread(() -> runClient(client), "load-client-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        Thread.sleep(warmupMillis);
+        recording = true;
+        long start = System.nanoTime();
+        Thread.sleep(measureMillis);
+        recording = false;
+        long elapsed = System.nanoTime() - start;
+        running = false;
+        for (Thread t : threads) t.join();
+        return report(elapsed);
+    }
+
+    private void runClient(int client) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int nextOrderId = 1_000_000_000 + client * 1_000_000; // Disjoint order IDs per client
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            while (running) {
+                int command = pick(random.nextInt(100));
+                String request = request(command, random, nextOrderId);
+                if (command == 3) nextOrderId++;
+                long start = System.nanoTime();
+                out.write(request);
+                out.write('\n');
+                out.flush();
+                boolean ok = readResponse(in);
+                if (!recording) continue;
+                latencies[command].record(System.nanoTime() - start);
+                if (!ok) failures.incrementAndGet(command);
+            }
+        } catch (IOException e) {
+            System.err.println("Client " + client + " stopped: " + e.getMessage());
+        }
+    }
+
+    private static int pick(int percent) {
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            percent -= WEIGHTS[i];
+            if (percent < 0) return i;
+        }
+        return WEIGHTS.length - 1;
+    }
+
+    private String request(int command, ThreadLocalRandom random, int orderId) {
+        int product = 1 + random.nextInt(products);
+        int customer = 1 + random.nextInt(customers);
+        switch (command) {
+            case 0: return "find-product " + product;
+            case 1: return "find-customer " + customer;
+            case 2: return "recent-orders " + customer + " 10";
+            default: {
+                StringBuilder sb = new StringBuilder("place-order ").append(orderId).append(' ')
+                        .append(customer).append(" 2024-06-01");
+                int lines = 1 + random.nextInt(3);
+                for (int i = 0; i < lines; i++) sb.append(' ').append(1 + random.nextInt(products));
+                return sb.toString();
+            }
+        }
+    }
+
+    // Reads one response (lines up to an empty line); true if it starts with "ok ".
+    private static boolean readResponse(BufferedReader in) throws IOException {
+        String first = in.readLine();
+        if (first == null) throw new IOException("server closed the connection");
+        String line = first;
+        while (!line.isEmpty()) {
+            line = in.readLine();
+            if (line == null) throw new IOException("server closed the connection");
+        }
+        return first.startsWith("ok ");
+    }
+
+    private String report(long elapsedNanos) {
+        long total = 0;
+        for (LatencyHistogram h : latencies) total += h.getCount();
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d clients, %.1f s: %d requests, %.0f req/s%n", clients, seconds, total, total / seconds));
+        sb.append(String.format("%-16s %10s %10s %10s %10s %10s %10s%n", "Command", "Count", "Failed", "Mean(us)", "P50(us)", "P99(us)", "Max(us)"));
+        for (int i = 0; i < COMMANDS.length; i++) {
+            LatencyHistogram h = latencies[i];
+            sb.append(String.format("%-16s %10d %10d %10.1f %10.1f %10.1f %10.1f%n", COMMANDS[i], h.getCount(), failures.get(i),
+                    h.getMeanNanos() / 1e3, h.getPercentileNanos(50) / 1e3, h.getPercentileNanos(99) / 1e3,
+                    h.getMaxNanos() / 1e3));
+        }
+        return sb.toString();
+    }
+}
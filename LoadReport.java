@@ -0,0 +1,139 @@
+package project;
+
+/**
+ * Outcome of one CSV load (or, via combine, of several loads).
+ * Returned by the ECommerceSystem load*FromCSV methods so callers can track
+ * row counts, reject reasons and throughput over time.
+ */
+public class LoadReport {
+
+    // Why a data row was rejected
+    public enum RejectReason {
+        MISSING_FIELDS, // Fewer columns than the format requires
+        BAD_NUMBER,     // A numeric column failed to parse
+        OTHER
+    }
+
+    private final String source;
+    private final long startNanos;
+    private long elapsedNanos;
+    private long bytes;
+    private long rowsRead;
+    private long rowsAccepted;
+    private final long[] rejectsByReason = new long[RejectReason.values().length];
+    private String error; // Set if the file could not be read
+    private CustomLinkedList<LoadReport> parts = new CustomLinkedList<>();
+
+    public LoadReport(String source) {
+        this.source = source;
+        this.startNanos = System.nanoTime();
+    }
+
+    // Sums several reports; elapsed time is the sum of the parts' times.
+    public static LoadReport combine(String source, CustomLinkedList<LoadReport> reports) {
+        LoadReport total = new LoadReport(source);
+        for (LoadReport r : reports) {
+            total.elapsedNanos += r.elapsedNanos;
+            total.bytes += r.bytes;
+            total.rowsRead += r.rowsRead;
+            total.rowsAccepted += r.rowsAccepted;
+            for (int i = 0; i < total.rejectsByReason.length; i++) {
+                total.rejectsByReason[i] += r.rejectsByReason[i];
+            }
+            if (r.error != null && total.error == null) total.error = r.source + ": " + r.error;
+        }
+        total.parts = reports;
+        return total;
+    }
+
+    void recordAccepted() {
+        rowsRead++;
+        rowsAccepted++;
+    }
+
+    void recordRejected(Exception cause) {
+        rowsRead++;
+        RejectReason reason;
+        if (cause instanceof NumberFormatException) {
+            reason = RejectReason.BAD_NUMBER;
+        } else if (cause instanceof ArrayIndexOutOfBoundsException) {
+            reason = RejectReason.MISSING_FIELDS;
+        } else {
+            reason = RejectReason.OTHER;
+        }
+        rejectsByReason[reason.ordinal()]++;
+    }
+
+    void recordError(String message) {
+        error = message;
+    }
+
+    // Stops the clock; bytes is the size of the file that was read.
+    void finish(long bytes) {
+        this.bytes = bytes;
+        this.elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsAccepted() {
+        return rowsAccepted;
+    }
+
+    public long getRowsRejected() {
+        return rowsRead - rowsAccepted;
+    }
+
+    public long getRejects(RejectReason reason) {
+        return rejectsByReason[reason.ordinal()];
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rowsRead * 1e9 / elapsedNanos;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    // Per-file reports of a combined load; empty for a single-file report.
+    public CustomLinkedList<LoadReport> getParts() {
+        return parts;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("LoadReport{source='").append(source).append('\'')
+          .append(", read=").append(rowsRead)
+          .append(", accepted=").append(rowsAccepted)
+          .append(", rejected=").append(getRowsRejected());
+        for (RejectReason reason : RejectReason.values()) {
+            long n = getRejects(reason);
+            if (n > 0) sb.append(", ").append(reason).append('=').append(n);
+        }
+        sb.append(", bytes=").append(bytes)
+          .append(", ms=").append(elapsedNanos / 1_000_000)
+          .append(", rows/sec=").append(String.format("%.0f", getRowsPerSecond()));
+        if (error != null) sb.append(", error='").append(error).append('\'');
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,10 @@
+package project;
+
+// Severity levels for LogSink messages, lowest first.
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF     // Threshold only: disables all output
+}
@@ -0,0 +1,17 @@
+package project;
+
+/**
+ * Destination for ECommerceSystem's operational messages.
+ * A plain lambda such as {@code (level, msg) -> System.out.println(msg)} is a valid
+ * synchronous sink; AsyncLogSink moves console I/O off the calling thread.
+ */
+public interface LogSink {
+
+    // Implementations drop messages below their own threshold; callers need not check first.
+    void log(LogLevel level, String message);
+
+    // Lets callers skip building messages that would be discarded.
+    default boolean isEnabled(LogLevel level) {
+        return true;
+    }
+}
@@ -0,0 +1,11 @@
+package project;
+
+/**
+ * Subscriber for low-stock alerts (ECommerceSystem.subscribeLowStock). Called on the
+ * thread whose update took the product's stock to or below the threshold, so
+ * implementations should return quickly.
+ */
+public interface LowStockListener {
+
+    void onLowStock(Product product, int stock, int threshold);
+}
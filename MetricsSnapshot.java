@@ -0,0 +1,76 @@
+package project;
+
+/**
+ * Point-in-time copy of ECommerceSystem's operation metrics and store gauges.
+ * Latencies are in nanoseconds; a height of -1 means the store is not a tree.
+ * Cache stats are null unless the store is a DiskBackedStore.
+ */
+public class MetricsSnapshot {
+
+    private final long[] counts = new long[Operation.values().length];
+    private final double[] meanNanos = new double[counts.length];
+    private final long[] p50Nanos = new long[counts.length];
+    private final long[] p99Nanos = new long[counts.length];
+    private final long[] maxNanos = new long[counts.length];
+
+    private final int productCount, customerCount, orderCount;
+    private final int productHeight, customerHeight, orderHeight;
+    private final CacheStats productCache, customerCache;
+
+    MetricsSnapshot(LatencyHistogram[] histograms,
+                    int productCount, int productHeight,
+                    int customerCount, int customerHeight,
+                    int orderCount, int orderHeight,
+                    CacheStats productCache, CacheStats customerCache) {
+        for (int i = 0; i < counts.length; i++) {
+            LatencyHistogram h = histograms[i];
+            counts[i] = h.getCount();
+            meanNanos[i] = h.getMeanNanos();
+            p50Nanos[i] = h.getPercentileNanos(50);
+            p99Nanos[i] = h.getPercentileNanos(99);
+            maxNanos[i] = h.getMaxNanos();
+        }
+        this.productCount = productCount;
+        this.productHeight = productHeight;
+        this.customerCount = customerCount;
+        this.customerHeight = customerHeight;
+        this.orderCount = orderCount;
+        this.orderHeight = orderHeight;
+        this.productCache = productCache;
+        this.customerCache = customerCache;
+    }
+
+    public long getCount(Operation op) { return counts[op.ordinal()]; }
+    public double getMeanNanos(Operation op) { return meanNanos[op.ordinal()]; }
+    public long getP50Nanos(Operation op) { return p50Nanos[op.ordinal()]; }
+    public long getP99Nanos(Operation op) { return p99Nanos[op.ordinal()]; }
+    public long getMaxNanos(Operation op) { return maxNanos[op.ordinal()]; }
+
+    public int getProductCount() { return productCount; }
+    public int getCustomerCount() { return customerCount; }
+    public int getOrderCount() { return orderCount; }
+    public int getProductTreeHeight() { return productHeight; }
+    public int getCustomerTreeHeight() { return customerHeight; }
+    public int getOrderTreeHeight() { return orderHeight; }
+    public CacheStats getProductCacheStats() { return productCache; }
+    public CacheStats getCustomerCacheStats() { return customerCache; }
+
+    // Human-readable table, microseconds for latencies.
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-24s %10s %10s %10s %10s %10s%n", "Operation", "Count", "Mean(us)", "P50(us)", "P99(us)", "Max(us)"));
+        for (Operation op : Operation.values()) {
+            int i = op.ordinal();
+            if (counts[i] == 0) continue;
+            sb.append(String.format("%-24s %10d %10.1f %10.1f %10.1f %10.1f%n", op, counts[i],
+                    meanNanos[i] / 1000.0, p50Nanos[i] / 1000.0, p99Nanos[i] / 1000.0, maxNanos[i] / 1000.0));
+        }
+        sb.append(String.format("Products:  size=%d height=%d%s%n", productCount, productHeight,
+                productCache != null ? " " + productCache : ""));
+        sb.append(String.format("Customers: size=%d height=%d%s%n", customerCount, customerHeight,
+                customerCache != null ? " " + customerCache : ""));
+        sb.append(String.format("Orders:    size=%d height=%d", orderCount, orderHeight));
+        return sb.toString();
+    }
+}
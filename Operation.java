@@ -0,0 +1,22 @@
+package project;
+
+// ECommerceSystem operations whose call counts and latencies are tracked.
+public enum Operation {
+    FIND_PRODUCT,
+    FIND_CUSTOMER,
+    FIND_ORDER,
+    PLACE_ORDER,
+    PLACE_ORDERS,
+    CANCEL_ORDER,
+    UPDATE_ORDER_STATUS,
+    ADD_REVIEW,
+    PRODUCTS_IN_PRICE_RANGE,
+    ORDERS_BETWEEN_DATES,
+    ORDERS_BY_STATUS,
+    OUT_OF_STOCK_PRODUCTS,
+    TOP3_PRODUCTS_BY_RATING,
+    SEARCH_PRODUCTS,
+    QUERY_PRODUCTS,
+    ORDER_ANALYTICS,
+    BOUGHT_TOGETHER
+}
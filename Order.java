@@ -3,10 +3,12 @@ package project;
 public class Order {
     private int orderId;
     private int customerId;
-    private CustomLinkedList<Integer> productIds; 
-    private double totalPrice;
-    private String orderDate;
-    private String status; 
+    private volatile CustomLinkedList<Integer> productIds; // One entry per unit; null once lines are captured
+    private volatile double totalPrice;
+    private volatile String orderDate;
+    private volatile short status; // OrderStatus code
+    private volatile String otherStatus; // Text of the last status that had no code of its own
+    private volatile OrderLines lines; // Unit prices captured at placement, or null if unknown
     
     public Order(int oId, int cId, double totalPrice, String oDate, String status) {
         orderId = oId;
@@ -14,24 +16,52 @@ public class Order {
         this.productIds = new CustomLinkedList<>();
         this.totalPrice = totalPrice;
         orderDate = oDate;
-        this.status = status;
+        setStatus(status);
     }
     
    
     
-    public void updateStatus(String nStatus) {
-        this.status = nStatus;
+    // Returns the previous status.
+    public synchronized String updateStatus(String nStatus) {
+        String previous = getStatus();
+        setStatus(nStatus);
+        return previous;
+    }
+    
+    // otherStatus is written before the code and never cleared, so a reader that sees an
+    // OTHER code always finds text with it.
+    private void setStatus(String text) {
+        short code = OrderStatus.codeOf(text);
+        if (OrderStatus.isOther(code)) otherStatus = text;
+        status = code;
     }
     
    
     
     public void addProduct(int pId) {
-        productIds.add(pId);
+        addProduct(pId, 1);
+    }
+    
+    // Adds quantity units of a product; each unit is one entry in productIds.
+    public void addProduct(int pId, int quantity) {
+        CustomLinkedList<Integer> units = productIds;
+        if (units == null) throw new IllegalStateException("Order " + orderId + " already has its lines captured");
+        for (int i = 0; i < quantity; i++) {
+            units.add(pId);
+        }
     }
     
+    // Returns false if the order was already cancelled, so stock is released only once.
+    public synchronized boolean cancelOrder() {
+        if (isCancelled()) {
+            return false;
+        }
+        this.status = OrderStatus.CANCELLED;
+        return true;
+    }
     
-    public void cancelOrder() {
-        this.status = "Cancelled";
+    public boolean isCancelled() {
+        return OrderStatus.isCancelled(status);
     }
     
     public int getOrderId() {
@@ -42,8 +72,17 @@ public class Order {
         return customerId;
     }
     
+    // One entry per unit. Once lines are captured this is a fresh list built from them,
+    // grouped by product in ascending ID order.
     public CustomLinkedList<Integer> getProductIds() {
-        return productIds;
+        CustomLinkedList<Integer> units = productIds;
+        OrderLines captured = lines;
+        if (units != null && captured == null) return units;
+        units = new CustomLinkedList<>();
+        for (int i = 0; i < captured.size(); i++) {
+            for (int q = 0; q < captured.getQuantity(i); q++) units.add(captured.getProductId(i));
+        }
+        return units;
     }
     
     public double getTotalPrice() {
@@ -55,9 +94,26 @@ public class Order {
     }
     
     public String getStatus() {
+        short code = status;
+        return OrderStatus.isOther(code) ? otherStatus : OrderStatus.name(code);
+    }
+    
+    public short getStatusCode() {
         return status;
     }
     
+    // Null for orders loaded from files that do not record unit prices.
+    public OrderLines getLines() {
+        return lines;
+    }
+    
+    // The lines become the order's contents: the per-unit list is dropped, since they hold the same units.
+    public void setLines(OrderLines lines) {
+        if (lines == null) throw new IllegalArgumentException("lines must not be null");
+        this.lines = lines;
+        this.productIds = null; // Written after lines, so a reader that sees null also sees them
+    }
+    
    
     
     public void setOrderDate(String oDate) {
@@ -75,7 +131,7 @@ public class Order {
                 ", customerId=" + customerId +
                 ", totalPrice=" + totalPrice +
                 ", orderDate='" + orderDate + '\'' +
-                ", status='" + status + '\'' +
+                ", status='" + getStatus() + '\'' +
                 '}';
     }
 }
\ No newline at end of file
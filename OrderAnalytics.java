@@ -0,0 +1,277 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Revenue and basket aggregates over a snapshot of orders, computed in one parallel pass.
+ *
+ * The snapshot array is split into fixed-size partitions on the common ForkJoinPool;
+ * each partition groups its orders by day, customer and product into its own primitive
+ * accumulators (no shared state, no locks), and partial results are merged pairwise as
+ * the tasks join. Cancelled orders are counted but excluded from revenue and units.
+ *
+ * Order revenue is the order total. Per-product revenue comes from the unit prices each
+ * order captured at placement (OrderLines); units of orders without captured prices (e.g.
+ * loaded from older files) are valued at the product's current price, looked up once per
+ * product and only for products that have such units.
+ */
+public class OrderAnalytics {
+
+    private static final int PARTITION = 1 << 15;
+
+    private final CustomLinkedList<GroupTotal<String>> byDay = new CustomLinkedList<>();
+    private final CustomLinkedList<GroupTotal<Integer>> byCustomer = new CustomLinkedList<>();
+    private final CustomLinkedList<GroupTotal<Integer>> byProduct = new CustomLinkedList<>();
+    private final long orders;
+    private final long cancelled;
+    private final long units;
+    private final double revenue;
+
+    /**
+     * Aggregates the orders dated within [startDate, endDate] (null = open).
+     * priceOf gives a product's current price, or 0 if it no longer exists; it is only
+     * called for products with units that have no captured price.
+     */
+    public static OrderAnalytics compute(Order[] snapshot, String startDate, String endDate, IntToDoubleFunction priceOf) {
+        Partial total = ForkJoinPool.commonPool().invoke(new Partition(snapshot, 0, snapshot.length, startDate, endDate));
+        return new OrderAnalytics(total, priceOf);
+    }
+
+    private OrderAnalytics(Partial p, IntToDoubleFunction priceOf) {
+        orders = p.orders;
+        cancelled = p.cancelled;
+        units = p.units;
+        revenue = p.revenue;
+        String[] days = p.days.keySet().toArray(new String[0]);
+        Arrays.sort(days, Comparator.nullsFirst(Comparator.naturalOrder())); // Undated orders group under null
+        for (String day : days) {
+            Acc a = p.days.get(day);
+            byDay.add(new GroupTotal<>(day, a.orders, a.units, a.revenue));
+        }
+        p.customers.appendSorted(byCustomer, null);
+        p.products.appendSorted(byProduct, priceOf);
+    }
+
+    // Groups in ascending day order; undated orders (null day) come first.
+    public CustomLinkedList<GroupTotal<String>> getRevenueByDay() {
+        return byDay;
+    }
+
+    // Groups in ascending customer ID order.
+    public CustomLinkedList<GroupTotal<Integer>> getRevenueByCustomer() {
+        return byCustomer;
+    }
+
+    // Groups in ascending product ID order; orders = orders containing the product.
+    public CustomLinkedList<GroupTotal<Integer>> getRevenueByProduct() {
+        return byProduct;
+    }
+
+    // The n groups with the highest revenue, highest first.
+    public static <K> CustomLinkedList<GroupTotal<K>> top(CustomLinkedList<GroupTotal<K>> groups, int n) {
+        ArrayList<GroupTotal<K>> sorted = new ArrayList<>();
+        for (GroupTotal<K> g : groups) sorted.add(g);
+        sorted.sort(Comparator.comparingDouble((GroupTotal<K> g) -> g.getRevenue()).reversed());
+        CustomLinkedList<GroupTotal<K>> result = new CustomLinkedList<>();
+        for (int i = 0; i < Math.min(n, sorted.size()); i++) result.add(sorted.get(i));
+        return result;
+    }
+
+    // Orders that are not cancelled.
+    public long getOrderCount() {
+        return orders;
+    }
+
+    public long getCancelledCount() {
+        return cancelled;
+    }
+
+    public double getTotalRevenue() {
+        return revenue;
+    }
+
+    // Average units per (non-cancelled) order.
+    public double getAverageBasketSize() {
+        return orders == 0 ? 0.0 : (double) units / orders;
+    }
+
+    public double getAverageOrderValue() {
+        return orders == 0 ? 0.0 : revenue / orders;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderAnalytics{" +
+                "orders=" + orders +
+                ", cancelled=" + cancelled +
+                ", revenue=" + String.format("%.2f", revenue) +
+                ", avgBasket=" + String.format("%.2f", getAverageBasketSize()) +
+                ", avgOrderValue=" + String.format("%.2f", getAverageOrderValue()) +
+                ", days=" + byDay.size() +
+                ", customers=" + byCustomer.size() +
+                ", products=" + byProduct.size() +
+                '}';
+    }
+
+    // ---------------- Fork-join pass ---------------- //
+
+    @SuppressWarnings("serial") // Never serialized
+    private static final class Partition extends RecursiveTask<Partial> {
+        private final Order[] snapshot;
+        private final int from, to;
+        private final String startDate, endDate;
+
+        Partition(Order[] snapshot, int from, int to, String startDate, String endDate) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.to = to;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from > PARTITION) {
+                int mid = (from + to) >>> 1;
+                Partition left = new Partition(snapshot, from, mid, startDate, endDate);
+                left.fork();
+                Partial right = new Partition(snapshot, mid, to, startDate, endDate).compute();
+                return left.join().merge(right);
+            }
+            Partial p = new Partial();
+            int[] lines = new int[8];
+            for (int i = from; i < to; i++) {
+                Order o = snapshot[i];
+                String date = o.getOrderDate();
+                if (startDate != null && (date == null || date.compareTo(startDate) < 0)) continue;
+                if (endDate != null && (date == null || date.compareTo(endDate) > 0)) continue;
+                if (o.isCancelled()) {
+                    p.cancelled++;
+                    continue;
+                }
+                int n;
+                OrderLines captured = o.getLines();
+                if (captured != null) {
+                    n = captured.getUnitCount();
+                    for (int l = 0; l < captured.size(); l++) {
+                        p.products.add(captured.getProductId(l), 1, captured.getQuantity(l), captured.getLineTotal(l), 0);
+                    }
+                } else {
+                    // Sorted line IDs, so repeated products count as one order with n units
+                    n = 0;
+                    for (int pid : o.getProductIds()) {
+                        if (n == lines.length) lines = Arrays.copyOf(lines, n * 2);
+                        lines[n++] = pid;
+                    }
+                    Arrays.sort(lines, 0, n);
+                    for (int a = 0; a < n; ) {
+                        int b = a;
+                        while (b < n && lines[b] == lines[a]) b++;
+                        p.products.add(lines[a], 1, b - a, 0.0, b - a);
+                        a = b;
+                    }
+                }
+                double total = o.getTotalPrice();
+                p.orders++;
+                p.units += n;
+                p.revenue += total;
+                p.customers.add(o.getCustomerId(), 1, n, total, 0);
+                p.days.computeIfAbsent(date, d -> new Acc()).add(1, n, total);
+            }
+            return p;
+        }
+    }
+
+    private static final class Acc {
+        long orders, units;
+        double revenue;
+
+        void add(long orders, long units, double revenue) {
+            this.orders += orders;
+            this.units += units;
+            this.revenue += revenue;
+        }
+    }
+
+    private static final class Partial {
+        final HashMap<String, Acc> days = new HashMap<>();
+        final Groups customers = new Groups();
+        final Groups products = new Groups();
+        long orders, cancelled, units;
+        double revenue;
+
+        Partial merge(Partial other) {
+            for (Map.Entry<String, Acc> e : other.days.entrySet()) {
+                Acc a = e.getValue();
+                days.computeIfAbsent(e.getKey(), d -> new Acc()).add(a.orders, a.units, a.revenue);
+            }
+            customers.merge(other.customers);
+            products.merge(other.products);
+            orders += other.orders;
+            cancelled += other.cancelled;
+            units += other.units;
+            revenue += other.revenue;
+            return this;
+        }
+    }
+
+    // Dense per-ID accumulators: an IntLongHashMap maps each ID to its slot in the arrays.
+    private static final class Groups {
+        final IntLongHashMap slots = new IntLongHashMap();
+        int[] ids = new int[16];
+        long[] orders = new long[16];
+        long[] units = new long[16];
+        double[] revenue = new double[16];
+        long[] unpriced = new long[16]; // Units whose price was not captured
+        int size;
+
+        void add(int id, long o, long u, double r, long up) {
+            long slot = slots.get(id);
+            int s;
+            if (slot < 0) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    orders = Arrays.copyOf(orders, size * 2);
+                    units = Arrays.copyOf(units, size * 2);
+                    revenue = Arrays.copyOf(revenue, size * 2);
+                    unpriced = Arrays.copyOf(unpriced, size * 2);
+                }
+                s = size++;
+                ids[s] = id;
+                slots.put(id, s);
+            } else {
+                s = (int) slot;
+            }
+            orders[s] += o;
+            units[s] += u;
+            revenue[s] += r;
+            unpriced[s] += up;
+        }
+
+        void merge(Groups other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.ids[i], other.orders[i], other.units[i], other.revenue[i], other.unpriced[i]);
+            }
+        }
+
+        // Appends the groups in ID order; unpriced units are valued with priceOf.
+        void appendSorted(CustomLinkedList<GroupTotal<Integer>> out, IntToDoubleFunction priceOf) {
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) order[i] = ((long) ids[i] << 32) | i;
+            Arrays.sort(order);
+            for (long packed : order) {
+                int s = (int) packed;
+                double r = revenue[s];
+                if (unpriced[s] > 0 && priceOf != null) r += unpriced[s] * priceOf.applyAsDouble(ids[s]);
+                out.add(new GroupTotal<>(ids[s], orders[s], units[s], r));
+            }
+        }
+    }
+}
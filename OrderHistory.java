@@ -0,0 +1,117 @@
+package project;
+
+import java.util.Arrays;
+
+/**
+ * One customer's orders kept sorted by order date (ISO strings, compared as text like
+ * getOrdersBetweenDates does), in two parallel arrays instead of one node per order.
+ * Orders with the same date keep their insertion order.
+ *
+ * - add() is an append when the order is the newest, which is the usual case; an
+ *   out-of-order date shifts the tail.
+ * - Paging walks back from the newest order, and date filters binary search their
+ *   bounds, so a page costs O(log n + limit).
+ * - The lifetime spend is kept incrementally: each entry remembers the amount it
+ *   currently contributes (its total, or 0 while cancelled), and reconcile() brings that
+ *   in line after the order's status changes.
+ *
+ * Not thread-safe; Customer guards it with its own lock.
+ */
+public class OrderHistory {
+
+    private Order[] orders = new Order[4];
+    private double[] counted = new double[4]; // Amount each entry adds to spend
+    private int size;
+    private double spend;
+
+    public void add(Order order) {
+        if (size == orders.length) {
+            orders = Arrays.copyOf(orders, size * 2);
+            counted = Arrays.copyOf(counted, size * 2);
+        }
+        int at = upperBound(order.getOrderDate());
+        System.arraycopy(orders, at, orders, at + 1, size - at);
+        System.arraycopy(counted, at, counted, at + 1, size - at);
+        orders[at] = order;
+        counted[at] = amountOf(order);
+        spend += counted[at];
+        size++;
+    }
+
+    // Re-reads order's status and total and adjusts the spend; no-op if it is not here.
+    public void reconcile(Order order) {
+        String date = order.getOrderDate();
+        for (int i = lowerBound(date); i < size && compare(orders[i].getOrderDate(), date) == 0; i++) {
+            if (orders[i] != order) continue;
+            double amount = amountOf(order);
+            spend += amount - counted[i];
+            counted[i] = amount;
+            return;
+        }
+    }
+
+    private static double amountOf(Order order) {
+        return order.isCancelled() ? 0.0 : order.getTotalPrice();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Sum of the totals of all orders that are not cancelled.
+    public double lifetimeSpend() {
+        return spend;
+    }
+
+    // All orders, oldest first.
+    public CustomLinkedList<Order> toList() {
+        CustomLinkedList<Order> list = new CustomLinkedList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(orders[i]);
+        }
+        return list;
+    }
+
+    /**
+     * Orders dated within [startDate, endDate] (either bound may be null for open),
+     * newest first, skipping offset matches and returning at most limit.
+     */
+    public CustomLinkedList<Order> page(String startDate, String endDate, int offset, int limit) {
+        CustomLinkedList<Order> result = new CustomLinkedList<>();
+        if (offset < 0 || limit <= 0) return result;
+        int from = startDate == null ? 0 : lowerBound(startDate);
+        int to = endDate == null ? size : upperBound(endDate);
+        for (int i = to - 1 - offset; i >= from && result.size() < limit; i--) {
+            result.add(orders[i]);
+        }
+        return result;
+    }
+
+    // First index whose date is >= date.
+    private int lowerBound(String date) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(orders[mid].getOrderDate(), date) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // First index whose date is > date.
+    private int upperBound(String date) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(orders[mid].getOrderDate(), date) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Null dates sort first.
+    private static int compare(String a, String b) {
+        if (a == null) return b == null ? 0 : -1;
+        return b == null ? 1 : a.compareTo(b);
+    }
+}
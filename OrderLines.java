@@ -0,0 +1,109 @@
+package project;
+
+import java.util.Arrays;
+
+/**
+ * An order's line items as captured at placement: one line per distinct product with its
+ * quantity and the unit price charged, in parallel primitive arrays sorted by product ID.
+ *
+ * Immutable. The total and unit count are summed once on construction, so reading them
+ * is O(1), and revenue per product can be aggregated from the lines without looking the
+ * products up again (their current prices may have changed since).
+ */
+public final class OrderLines {
+
+    private final int[] productIds;
+    private final int[] quantities;
+    private final double[] unitPrices;
+    private final double total;
+    private final int units;
+
+    // Takes ownership of the arrays (sorted by product ID, one entry per product).
+    OrderLines(int[] productIds, int[] quantities, double[] unitPrices) {
+        this.productIds = productIds;
+        this.quantities = quantities;
+        this.unitPrices = unitPrices;
+        double t = 0.0;
+        int u = 0;
+        for (int i = 0; i < productIds.length; i++) {
+            t += unitPrices[i] * quantities[i];
+            u += quantities[i];
+        }
+        total = t;
+        units = u;
+    }
+
+    /**
+     * Groups n entries given as (product ID, quantity, unit price) into lines; repeated
+     * products add up their quantities and keep the first entry's price. Insertion sort,
+     * since orders have few entries.
+     */
+    static OrderLines fromEntries(int[] ids, int[] counts, double[] prices, int n) {
+        int[] sortedIds = new int[n];
+        int[] sortedCounts = new int[n];
+        double[] sortedPrices = new double[n];
+        for (int i = 0; i < n; i++) {
+            int j = i;
+            while (j > 0 && sortedIds[j - 1] > ids[i]) {
+                sortedIds[j] = sortedIds[j - 1];
+                sortedCounts[j] = sortedCounts[j - 1];
+                sortedPrices[j] = sortedPrices[j - 1];
+                j--;
+            }
+            sortedIds[j] = ids[i];
+            sortedCounts[j] = counts[i];
+            sortedPrices[j] = prices[i];
+        }
+        int lines = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || sortedIds[i] != sortedIds[i - 1]) lines++;
+        }
+        int[] productIds = new int[lines];
+        int[] quantities = new int[lines];
+        double[] unitPrices = new double[lines];
+        int line = -1;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || sortedIds[i] != sortedIds[i - 1]) {
+                line++;
+                productIds[line] = sortedIds[i];
+                unitPrices[line] = sortedPrices[i];
+            }
+            quantities[line] += sortedCounts[i];
+        }
+        return new OrderLines(productIds, quantities, unitPrices);
+    }
+
+    // Index of productId's line, or -1 if the order has none.
+    public int lineOf(int productId) {
+        int line = Arrays.binarySearch(productIds, productId);
+        return line < 0 ? -1 : line;
+    }
+
+    public int size() {
+        return productIds.length;
+    }
+
+    public int getProductId(int line) {
+        return productIds[line];
+    }
+
+    public int getQuantity(int line) {
+        return quantities[line];
+    }
+
+    public double getUnitPrice(int line) {
+        return unitPrices[line];
+    }
+
+    public double getLineTotal(int line) {
+        return unitPrices[line] * quantities[line];
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public int getUnitCount() {
+        return units;
+    }
+}
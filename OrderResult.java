@@ -0,0 +1,47 @@
+package project;
+
+// Per-order outcome of ECommerceSystem.placeOrders.
+public class OrderResult {
+
+    public enum Outcome {
+        PLACED,
+        CUSTOMER_NOT_FOUND,
+        INSUFFICIENT_STOCK,
+        DUPLICATE_ORDER_ID // Same order ID already placed earlier in the batch
+    }
+
+    private int orderId;
+    private Outcome outcome;
+    private double totalPrice;
+
+    public OrderResult(int orderId, Outcome outcome, double totalPrice) {
+        this.orderId = orderId;
+        this.outcome = outcome;
+        this.totalPrice = totalPrice;
+    }
+
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isPlaced() {
+        return outcome == Outcome.PLACED;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderResult{" +
+                "orderId=" + orderId +
+                ", outcome=" + outcome +
+                ", totalPrice=" + totalPrice +
+                '}';
+    }
+}
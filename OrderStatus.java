@@ -0,0 +1,55 @@
+package project;
+
+/**
+ * Codes for order status strings, so an Order stores a short instead of its own String
+ * and the status index can keep one bucket per code.
+ *
+ * Only the usual statuses have their own code. Any other string maps to OTHER (or, for
+ * other spellings of "Cancelled", OTHER_CANCELLED) and the Order keeps its text, so the
+ * set of codes is fixed and cannot be exhausted by arbitrary input. Codes are
+ * exact-string: "Shipped" has its own code, "shipped" is OTHER. Code 0 stands for a
+ * null status.
+ */
+public final class OrderStatus {
+
+    public static final short NONE = 0;
+    public static final short PENDING = 1;
+    public static final short PROCESSING = 2;
+    public static final short SHIPPED = 3;
+    public static final short DELIVERED = 4;
+    public static final short CANCELLED = 5;
+    public static final short OTHER = 6;
+    public static final short OTHER_CANCELLED = 7; // e.g. "CANCELLED", "cancelled"
+
+    // Number of codes, i.e. every code is below this.
+    public static final int COUNT = 8;
+
+    private static final String[] NAMES = { null, "Pending", "Processing", "Shipped", "Delivered", "Cancelled" };
+
+    private OrderStatus() {
+    }
+
+    // Code for status; never fails and never registers anything.
+    public static short codeOf(String status) {
+        if (status == null) return NONE;
+        for (short code = PENDING; code < NAMES.length; code++) {
+            if (NAMES[code].equals(status)) return code;
+        }
+        return "Cancelled".equalsIgnoreCase(status) ? OTHER_CANCELLED : OTHER;
+    }
+
+    // True for the codes whose text is kept by the Order rather than here.
+    public static boolean isOther(int code) {
+        return code == OTHER || code == OTHER_CANCELLED;
+    }
+
+    // Text of a code that is not OTHER or OTHER_CANCELLED.
+    public static String name(int code) {
+        return NAMES[code];
+    }
+
+    // Matches the old case-insensitive "Cancelled" check.
+    public static boolean isCancelled(int code) {
+        return code == CANCELLED || code == OTHER_CANCELLED;
+    }
+}
@@ -0,0 +1,71 @@
+package project;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Orders grouped by status code, so listing the orders in one of the usual statuses is
+ * O(k) and counting them is O(1). Statuses without a code of their own share the OTHER
+ * buckets, which list() and count() filter by exact text.
+ *
+ * Each bucket is a sorted map by order ID plus a counter; the counter only moves when
+ * the map actually gains or loses the order, so adding an order twice or repeating a
+ * move is harmless. Callers change an order's status and call moved() while holding
+ * the order's lock, so the index sees each order's transitions in order.
+ */
+public class OrderStatusIndex {
+
+    private static final class Bucket {
+        final ConcurrentSkipListMap<Integer, Order> orders = new ConcurrentSkipListMap<>();
+        final AtomicInteger count = new AtomicInteger();
+    }
+
+    private final Bucket[] buckets = new Bucket[OrderStatus.COUNT];
+
+    public OrderStatusIndex() {
+        for (int i = 0; i < buckets.length; i++) buckets[i] = new Bucket();
+    }
+
+    // Indexes order under its current status.
+    public void add(Order order) {
+        synchronized (order) {
+            put(order.getStatusCode(), order);
+        }
+    }
+
+    // Moves order from oldCode to its current status. Caller holds the order's lock.
+    public void moved(Order order, int oldCode) {
+        int code = order.getStatusCode();
+        if (code == oldCode) return;
+        Bucket old = buckets[oldCode];
+        if (old.orders.remove(order.getOrderId(), order)) old.count.decrementAndGet();
+        put(code, order);
+    }
+
+    private void put(int code, Order order) {
+        Bucket b = buckets[code];
+        if (b.orders.put(order.getOrderId(), order) == null) b.count.incrementAndGet();
+    }
+
+    // Orders whose status is exactly status, in ascending ID order; O(k).
+    public CustomLinkedList<Order> list(String status) {
+        CustomLinkedList<Order> result = new CustomLinkedList<>();
+        int code = OrderStatus.codeOf(status);
+        boolean filter = OrderStatus.isOther(code);
+        for (Order o : buckets[code].orders.values()) {
+            if (!filter || status.equals(o.getStatus())) result.add(o);
+        }
+        return result;
+    }
+
+    // O(1), or O(k) over the OTHER bucket for statuses without a code of their own.
+    public int count(String status) {
+        int code = OrderStatus.codeOf(status);
+        if (!OrderStatus.isOther(code)) return buckets[code].count.get();
+        int n = 0;
+        for (Order o : buckets[code].orders.values()) {
+            if (status.equals(o.getStatus())) n++;
+        }
+        return n;
+    }
+}
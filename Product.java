@@ -1,35 +1,138 @@
 package project;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Supplier;
+
 public class Product {
     private int productId;
-    private String name;
-    private double price;
-    private int stock;
+    // volatile: single-field reads never see stale values under concurrent updates
+    private volatile String name;
+    private volatile double price;
+    // CAS-based counter so concurrent checkouts can reserve stock without locking; a field
+    // updater rather than an AtomicInteger, so a product is a single object
+    private volatile int stock;
+    private static final AtomicIntegerFieldUpdater<Product> STOCK = AtomicIntegerFieldUpdater.newUpdater(Product.class, "stock");
+    // Notified after every stock change (e.g. ECommerceSystem's StockIndex), or null
+    private volatile StockListener stockListener;
+    // Both allocated on first use (most products in a large catalog have no reviews loaded),
+    // and then kept: getReviews and getReviewsWithRating return them live.
     private CustomLinkedList<Review> reviews;
+    // Reviews bucketed by rating (index 0 = 1 star ... index 4 = 5 stars),
+    // so rating-ordered retrieval needs no sorting.
+    private CustomLinkedList<Review>[] reviewsByRating;
+    private long ratingSum;
+    // Lazy loading: fetches the stored reviews on first access, then cleared
+    private Supplier<CustomLinkedList<Review>> reviewLoader;
     
     public Product(int productId, String name, double price, int stock) {
         this.productId = productId;
         this.name = name;
         this.price = price;
         this.stock = stock;
-        this.reviews = new CustomLinkedList<>();
     }
     
-    public void addReview(Review review) {
-        reviews.add(review);
+    // Allocates the review lists on first use. Caller holds the monitor.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private CustomLinkedList<Review> reviewList() {
+        if (reviews == null) {
+            reviewsByRating = new CustomLinkedList[5];
+            for (int i = 0; i < reviewsByRating.length; i++) {
+                reviewsByRating[i] = new CustomLinkedList<>();
+            }
+            reviews = new CustomLinkedList<>();
+        }
+        return reviews;
+    }
+    
+    public synchronized void addReview(Review review) {
+        ensureReviewsLoaded();
+        link(review);
     }
     
-    public double getAverageRating() {
-        if (reviews.isEmpty()) {
+    private void link(Review review) {
+        reviewList().add(review);
+        bucketFor(review.getRating()).add(review);
+        ratingSum += review.getRating();
+    }
+    
+    // Changes a review's rating and moves it to the matching bucket.
+    public synchronized void updateReviewRating(Review review, int newRating) {
+        ensureReviewsLoaded();
+        if (reviews == null || newRating < 1 || newRating > 5 || newRating == review.getRating()) {
+            return;
+        }
+        bucketFor(review.getRating()).removeItem(review);
+        ratingSum += newRating - review.getRating();
+        review.setRating(newRating);
+        bucketFor(newRating).add(review);
+    }
+    
+    // Running rating sum keeps this O(1).
+    public synchronized double getAverageRating() {
+        ensureReviewsLoaded();
+        if (reviews == null || reviews.isEmpty()) {
             return 0.0;
         }
-        
-        double sum = 0;
-        for (int i = 0; i < reviews.size(); i++) {
-            Review r = reviews.get(i);
-            sum += r.getRating();
+        return (double) ratingSum / reviews.size();
+    }
+    
+    /**
+     * Returns up to limit reviews ordered High Rating -> Low Rating, skipping the
+     * first offset. Reviews with equal rating keep their insertion order.
+     * Runs in O(offset + limit) without sorting.
+     */
+    public synchronized CustomLinkedList<Review> getReviewsByRating(int offset, int limit) {
+        ensureReviewsLoaded();
+        CustomLinkedList<Review> page = new CustomLinkedList<>();
+        if (reviews == null) return page;
+        int skipped = 0;
+        for (int i = reviewsByRating.length - 1; i >= 0 && page.size() < limit; i--) {
+            CustomLinkedList<Review> bucket = reviewsByRating[i];
+            if (skipped + bucket.size() <= offset) {
+                skipped += bucket.size(); // Whole bucket lies before the page
+                continue;
+            }
+            for (Review r : bucket) {
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                if (page.size() >= limit) break;
+                page.add(r);
+            }
+        }
+        return page;
+    }
+    
+    // Reviews with the given rating (1-5), in insertion order.
+    public synchronized CustomLinkedList<Review> getReviewsWithRating(int rating) {
+        ensureReviewsLoaded();
+        reviewList();
+        return bucketFor(rating);
+    }
+    
+    // Defers the stored reviews to loader, which runs once on the first access.
+    public synchronized void setReviewLoader(Supplier<CustomLinkedList<Review>> loader) {
+        this.reviewLoader = loader;
+    }
+    
+    public synchronized boolean isReviewsLoaded() {
+        return reviewLoader == null;
+    }
+    
+    private void ensureReviewsLoaded() {
+        if (reviewLoader == null) return;
+        Supplier<CustomLinkedList<Review>> loader = reviewLoader;
+        reviewLoader = null;
+        for (Review r : loader.get()) {
+            link(r);
         }
-        return sum / reviews.size();
+    }
+    
+    private CustomLinkedList<Review> bucketFor(int rating) {
+        // Out-of-range ratings from legacy data are clamped into the nearest bucket
+        int idx = Math.max(1, Math.min(5, rating)) - 1;
+        return reviewsByRating[idx];
     }
     
     public boolean isOutOfStock() {
@@ -37,15 +140,27 @@ public class Product {
     }
     
     public void updateStock(int newStock) {
-        this.stock = newStock;
+        stockChanged(STOCK.getAndSet(this, newStock), newStock);
     }
     
+    // Atomically takes quantity units if available (CAS retry loop, never oversells).
     public boolean reduceStock(int quantity) {
-        if (stock >= quantity) {
-            stock -= quantity;
-            return true;
+        while (true) {
+            int current = stock;
+            if (current < quantity) {
+                return false;
+            }
+            if (STOCK.compareAndSet(this, current, current - quantity)) {
+                stockChanged(current, current - quantity);
+                return true;
+            }
         }
-        return false;
+    }
+    
+    // Returns previously reserved units to stock (e.g. on order cancellation).
+    public void releaseStock(int quantity) {
+        int now = STOCK.addAndGet(this, quantity);
+        stockChanged(now - quantity, now);
     }
     
     public int getProductId() {
@@ -64,8 +179,9 @@ public class Product {
         return stock;
     }
     
-    public CustomLinkedList<Review> getReviews() {
-        return reviews;
+    public synchronized CustomLinkedList<Review> getReviews() {
+        ensureReviewsLoaded();
+        return reviewList();
     }
     
     public void setName(String name) {
@@ -77,16 +193,32 @@ public class Product {
     }
     
     public void setStock(int stock) {
-        this.stock = stock;
+        stockChanged(STOCK.getAndSet(this, stock), stock);
+    }
+    
+    public void setStockListener(StockListener listener) {
+        this.stockListener = listener;
+    }
+    
+    public StockListener getStockListener() {
+        return stockListener;
+    }
+    
+    // Reports an applied stock change; subclasses that keep stock elsewhere call this too.
+    protected void stockChanged(int oldStock, int newStock) {
+        StockListener listener = stockListener;
+        if (listener != null && oldStock != newStock) {
+            listener.stockChanged(this, oldStock, newStock);
+        }
     }
     
     @Override
-    public String toString() {
+    public synchronized String toString() {
         return "Product{" +
                 "productId=" + productId +
-                ", name='" + name + '\'' +
-                ", price=" + price +
-                ", stock=" + stock +
+                ", name='" + getName() + '\'' +
+                ", price=" + getPrice() +
+                ", stock=" + getStock() +
                 ", avgRating=" + String.format("%.2f", getAverageRating()) +
                 '}';
     }
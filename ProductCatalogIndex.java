@@ -0,0 +1,164 @@
+package project;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Sorted secondary indexes over product ID, price and average rating, for the
+ * ProductQueryEngine. Each product is one immutable Row held in three skip lists
+ * (by ID, by price then ID, by rating then ID); an update swaps in a new Row.
+ *
+ * Rows hold only primitives, so the index stays small even when products live in a
+ * DiskBackedStore. Updates are serialized on the index; range scans run lock-free and
+ * are weakly consistent (a row being updated may be missed by a concurrent scan).
+ * Loaders fill a Builder instead, which sorts the rows once and adds them to each skip
+ * list in key order, so every insert lands next to the previous one.
+ */
+public class ProductCatalogIndex {
+
+    static final class Row {
+        final int id;
+        final double price;
+        final double rating;
+
+        Row(int id, double price, double rating) {
+            this.id = id;
+            this.price = price;
+            this.rating = rating;
+        }
+    }
+
+    private static final Comparator<Row> BY_PRICE =
+            Comparator.<Row>comparingDouble(r -> r.price).thenComparingInt(r -> r.id);
+    private static final Comparator<Row> BY_RATING =
+            Comparator.<Row>comparingDouble(r -> r.rating).thenComparingInt(r -> r.id);
+
+    private final ConcurrentSkipListMap<Integer, Row> byId = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<Row> byPrice = new ConcurrentSkipListSet<>(BY_PRICE);
+    private final ConcurrentSkipListSet<Row> byRating = new ConcurrentSkipListSet<>(BY_RATING);
+    private volatile int size; // Kept here because skip-list size() walks the whole list
+
+    /**
+     * Collects the rows of a new index. build() sorts them by ID (a repeated ID keeps its
+     * last row, as with repeated put() calls), then by price and by rating, adding them to
+     * each skip list in that order. Not thread-safe; publish the built index safely.
+     */
+    public static final class Builder {
+        private int[] ids = new int[1024];
+        private double[] prices = new double[1024];
+        private double[] ratings = new double[1024];
+        private int count;
+
+        public void put(int id, double price, double rating) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+                prices = Arrays.copyOf(prices, count * 2);
+                ratings = Arrays.copyOf(ratings, count * 2);
+            }
+            ids[count] = id;
+            prices[count] = price;
+            ratings[count++] = rating;
+        }
+
+        public ProductCatalogIndex build() {
+            Row[] rows = new Row[count];
+            for (int i = 0; i < count; i++) rows[i] = new Row(ids[i], prices[i], ratings[i]);
+            Arrays.sort(rows, Comparator.comparingInt(r -> r.id)); // Stable: the last of equal IDs stays last
+            int n = 0;
+            for (int i = 0; i < rows.length; i++) {
+                if (i + 1 < rows.length && rows[i + 1].id == rows[i].id) continue; // Replaced later
+                rows[n++] = rows[i];
+            }
+            rows = Arrays.copyOf(rows, n);
+            ProductCatalogIndex index = new ProductCatalogIndex();
+            for (Row r : rows) index.byId.put(r.id, r);
+            Arrays.sort(rows, BY_PRICE);
+            index.byPrice.addAll(Arrays.asList(rows));
+            Arrays.sort(rows, BY_RATING);
+            index.byRating.addAll(Arrays.asList(rows));
+            index.size = n;
+            return index;
+        }
+    }
+
+    // Adds or replaces the row for id.
+    public synchronized void put(int id, double price, double rating) {
+        replace(byId.get(id), new Row(id, price, rating));
+    }
+
+    public synchronized void remove(int id) {
+        Row old = byId.remove(id);
+        if (old == null) return;
+        byPrice.remove(old);
+        byRating.remove(old);
+        size--;
+    }
+
+    public synchronized void setPrice(int id, double price) {
+        Row old = byId.get(id);
+        if (old != null && old.price != price) replace(old, new Row(id, price, old.rating));
+    }
+
+    public synchronized void setRating(int id, double rating) {
+        Row old = byId.get(id);
+        if (old != null && old.rating != rating) replace(old, new Row(id, old.price, rating));
+    }
+
+    // Re-reads every product's rating from reviews (after the reviews are reloaded); O(n log n).
+    public synchronized void resetRatings(TextIndex reviews) {
+        for (Row old : byId.values()) {
+            double rating = reviews.averageRating(old.id);
+            if (old.rating != rating) replace(old, new Row(old.id, old.price, rating));
+        }
+    }
+
+    private void replace(Row old, Row row) {
+        if (old != null) {
+            byPrice.remove(old);
+            byRating.remove(old);
+        } else {
+            size++;
+        }
+        byId.put(row.id, row);
+        byPrice.add(row);
+        byRating.add(row);
+    }
+
+    Row row(int id) {
+        return byId.get(id);
+    }
+
+    // O(1), so the query planner can use it as the row count of an unrestricted scan.
+    public int size() {
+        return size;
+    }
+
+    // ---------------- Range scans ---------------- //
+
+    Iterator<Row> ids(int min, int max, boolean descending) {
+        if (min > max) return Collections.emptyIterator();
+        NavigableMap<Integer, Row> range = byId.subMap(min, true, max, true);
+        return (descending ? range.descendingMap() : range).values().iterator();
+    }
+
+    Iterator<Row> prices(double min, double max, boolean descending) {
+        if (!(min <= max)) return Collections.emptyIterator();
+        return scan(byPrice, new Row(Integer.MIN_VALUE, min, 0), new Row(Integer.MAX_VALUE, max, 0), descending);
+    }
+
+    Iterator<Row> ratings(double min, double max, boolean descending) {
+        if (!(min <= max)) return Collections.emptyIterator();
+        return scan(byRating, new Row(Integer.MIN_VALUE, 0, min), new Row(Integer.MAX_VALUE, 0, max), descending);
+    }
+
+    private static Iterator<Row> scan(ConcurrentSkipListSet<Row> set, Row from, Row to, boolean descending) {
+        NavigableSet<Row> range = set.subSet(from, true, to, true);
+        return descending ? range.descendingIterator() : range.iterator();
+    }
+}
@@ -0,0 +1,248 @@
+package project;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Off-heap columnar storage for the hot product fields (ID, price, stock, name).
+ * Each product owns one row; ColumnarProduct is the Product view over a row, so
+ * getOutOfStockProducts and price filters scan packed columns instead of chasing
+ * one heap object per product.
+ *
+ * - Rows live in fixed chunks of 4096 held in direct ByteBuffers (one section per
+ *   column) that are never moved or copied. A row's address is stable, so stock can be
+ *   updated with CAS in place, and growing the table never blocks readers.
+ * - Names are UTF-8 in append-only direct chunks. Renaming appends the new bytes and
+ *   swaps the row's name reference in one atomic write.
+ * - The per-row accessors (idAt, priceAt, stockAt) and the scans read the columns without
+ *   allocating; only matching rows touch their Product object.
+ * - Rows are appended under the object lock. Deleted rows are tombstoned and
+ *   skipped, never reused. Scans are weakly consistent with concurrent updates.
+ */
+public class ProductColumns {
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+    private static final int ROW_MASK = CHUNK_ROWS - 1;
+    // Column sections within a chunk; each starts aligned to its element size
+    private static final int ID = 0;
+    private static final int STOCK = 4 * CHUNK_ROWS;
+    private static final int PRICE = 8 * CHUNK_ROWS;
+    private static final int NAME = 16 * CHUNK_ROWS;
+    private static final int CHUNK_BYTES = 24 * CHUNK_ROWS;
+
+    private static final int NAME_CHUNK_BYTES = 1 << 16;
+    private static final long DELETED = -1L; // Name reference of a tombstoned row
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final class Chunk {
+        final ByteBuffer data = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.nativeOrder());
+        final ColumnarProduct[] products = new ColumnarProduct[CHUNK_ROWS];
+    }
+
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int rows;
+    private volatile int liveRows;
+
+    // Name bytes; a name reference is (chunk << 32) | (offset << 16) | length
+    private volatile ByteBuffer[] nameChunks = new ByteBuffer[0];
+    private int nameChunkUsed = NAME_CHUNK_BYTES; // Bytes used in the last name chunk (guarded by this)
+
+    // Appends a row and returns the Product view over it.
+    public synchronized ColumnarProduct add(int productId, String name, double price, int stock) {
+        int row = rows;
+        int c = row >>> CHUNK_SHIFT;
+        if (c == chunks.length) {
+            Chunk[] grown = Arrays.copyOf(chunks, c + 1);
+            grown[c] = new Chunk();
+            chunks = grown;
+        }
+        Chunk chunk = chunks[c];
+        int r = row & ROW_MASK;
+        chunk.data.putInt(ID + 4 * r, productId);
+        INT.setVolatile(chunk.data, STOCK + 4 * r, stock);
+        LONG.setVolatile(chunk.data, PRICE + 8 * r, Double.doubleToRawLongBits(price));
+        LONG.setVolatile(chunk.data, NAME + 8 * r, appendName(name));
+        ColumnarProduct product = new ColumnarProduct(this, row, productId);
+        chunk.products[r] = product;
+        rows = row + 1; // Publishes the row to scans
+        liveRows++;
+        return product;
+    }
+
+    // Tombstones the row behind p if p is a view over these columns.
+    public synchronized void release(Product p) {
+        if (!(p instanceof ColumnarProduct)) return;
+        ColumnarProduct cp = (ColumnarProduct) p;
+        if (cp.columns() != this || !isLive(cp.row())) return;
+        LONG.setVolatile(chunkOf(cp.row()).data, NAME + 8 * (cp.row() & ROW_MASK), DELETED);
+        liveRows--;
+    }
+
+    public int rowCount() {
+        return rows;
+    }
+
+    public int liveRowCount() {
+        return liveRows;
+    }
+
+    // Off-heap bytes held by row and name chunks.
+    public long offHeapBytes() {
+        long bytes = (long) chunks.length * CHUNK_BYTES;
+        for (ByteBuffer b : nameChunks) bytes += b.capacity();
+        return bytes;
+    }
+
+    // ---------------- Flyweight row accessors (no allocation) ---------------- //
+
+    private Chunk chunkOf(int row) {
+        return chunks[row >>> CHUNK_SHIFT];
+    }
+
+    public int idAt(int row) {
+        return chunkOf(row).data.getInt(ID + 4 * (row & ROW_MASK));
+    }
+
+    public int stockAt(int row) {
+        return (int) INT.getVolatile(chunkOf(row).data, STOCK + 4 * (row & ROW_MASK));
+    }
+
+    public double priceAt(int row) {
+        return Double.longBitsToDouble((long) LONG.getVolatile(chunkOf(row).data, PRICE + 8 * (row & ROW_MASK)));
+    }
+
+    public boolean isLive(int row) {
+        return (long) LONG.getVolatile(chunkOf(row).data, NAME + 8 * (row & ROW_MASK)) != DELETED;
+    }
+
+    // Decodes the row's name (allocates the String).
+    public String nameAt(int row) {
+        long ref = (long) LONG.getVolatile(chunkOf(row).data, NAME + 8 * (row & ROW_MASK));
+        if (ref == DELETED) return null;
+        ByteBuffer names = nameChunks[(int) (ref >>> 32)];
+        int offset = (int) (ref >>> 16) & 0xFFFF;
+        int length = (int) ref & 0xFFFF;
+        byte[] bytes = new byte[length];
+        names.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ---------------- Row updates ---------------- //
+
+    // Each stock update returns the previous value so callers can report the change.
+    int getAndSetStock(int row, int stock) {
+        return (int) INT.getAndSet(chunkOf(row).data, STOCK + 4 * (row & ROW_MASK), stock);
+    }
+
+    int getAndAddStock(int row, int delta) {
+        return (int) INT.getAndAdd(chunkOf(row).data, STOCK + 4 * (row & ROW_MASK), delta);
+    }
+
+    // Takes quantity units if available (CAS retry loop on the stock column);
+    // returns the stock before the reservation, or -1 if there was not enough.
+    int reduceStock(int row, int quantity) {
+        ByteBuffer data = chunkOf(row).data;
+        int index = STOCK + 4 * (row & ROW_MASK);
+        while (true) {
+            int current = (int) INT.getVolatile(data, index);
+            if (current < quantity) {
+                return -1;
+            }
+            if (INT.compareAndSet(data, index, current, current - quantity)) {
+                return current;
+            }
+        }
+    }
+
+    void setPrice(int row, double price) {
+        LONG.setVolatile(chunkOf(row).data, PRICE + 8 * (row & ROW_MASK), Double.doubleToRawLongBits(price));
+    }
+
+    synchronized void setName(int row, String name) {
+        if (!isLive(row)) return;
+        LONG.setVolatile(chunkOf(row).data, NAME + 8 * (row & ROW_MASK), appendName(name));
+    }
+
+    // Caller holds the lock. Old name bytes are not reclaimed.
+    private long appendName(String name) {
+        byte[] bytes = (name == null ? "" : name).getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, 0xFFFF);
+        if (nameChunkUsed + length >= NAME_CHUNK_BYTES) { // Keeps offsets below 2^16
+            ByteBuffer[] grown = Arrays.copyOf(nameChunks, nameChunks.length + 1);
+            grown[grown.length - 1] = ByteBuffer.allocateDirect(NAME_CHUNK_BYTES);
+            nameChunks = grown;
+            nameChunkUsed = 0;
+        }
+        int chunk = nameChunks.length - 1;
+        int offset = nameChunkUsed;
+        nameChunks[chunk].put(offset, bytes, 0, length);
+        nameChunkUsed += length;
+        return ((long) chunk << 32) | ((long) offset << 16) | length;
+    }
+
+    // ---------------- Column scans ---------------- //
+
+    // Live products with zero stock, in ascending ID order.
+    public CustomLinkedList<Product> outOfStock() {
+        long[] hits = new long[16];
+        int n = 0;
+        int total = rows;
+        Chunk[] snapshot = chunks;
+        for (int c = 0; c * CHUNK_ROWS < total; c++) {
+            ByteBuffer data = snapshot[c].data;
+            int end = Math.min(CHUNK_ROWS, total - c * CHUNK_ROWS);
+            for (int r = 0; r < end; r++) {
+                if (data.getInt(STOCK + 4 * r) == 0) {
+                    if (n == hits.length) hits = Arrays.copyOf(hits, n * 2);
+                    hits[n++] = hit(data, c, r);
+                }
+            }
+        }
+        return collect(snapshot, hits, n);
+    }
+
+    // Live products with min <= price <= max, in ascending ID order.
+    public CustomLinkedList<Product> priceBetween(double min, double max) {
+        long[] hits = new long[16];
+        int n = 0;
+        int total = rows;
+        Chunk[] snapshot = chunks;
+        for (int c = 0; c * CHUNK_ROWS < total; c++) {
+            ByteBuffer data = snapshot[c].data;
+            int end = Math.min(CHUNK_ROWS, total - c * CHUNK_ROWS);
+            for (int r = 0; r < end; r++) {
+                double price = data.getDouble(PRICE + 8 * r);
+                if (price >= min && price <= max) {
+                    if (n == hits.length) hits = Arrays.copyOf(hits, n * 2);
+                    hits[n++] = hit(data, c, r);
+                }
+            }
+        }
+        return collect(snapshot, hits, n);
+    }
+
+    // Packs (product ID, row) so sorting the hits orders them by ID.
+    private static long hit(ByteBuffer data, int chunk, int r) {
+        int row = (chunk << CHUNK_SHIFT) | r;
+        return ((long) data.getInt(ID + 4 * r) << 32) | row;
+    }
+
+    private CustomLinkedList<Product> collect(Chunk[] snapshot, long[] hits, int n) {
+        Arrays.sort(hits, 0, n);
+        CustomLinkedList<Product> result = new CustomLinkedList<>();
+        for (int i = 0; i < n; i++) {
+            int row = (int) hits[i];
+            Chunk chunk = snapshot[row >>> CHUNK_SHIFT];
+            if ((long) LONG.getVolatile(chunk.data, NAME + 8 * (row & ROW_MASK)) == DELETED) continue;
+            result.add(chunk.products[row & ROW_MASK]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,121 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Composable product query for ECommerceSystem.queryProducts, e.g.
+ * {@code new ProductQuery().priceBetween(10, 50).inStock().minRating(4)
+ *      .sortBy(ProductQuery.SortKey.RATING, true).page(3, 20)}.
+ *
+ * Range conditions on the same attribute intersect, so calling priceBetween twice
+ * narrows the range. where() adds arbitrary predicates, checked after the indexed ones.
+ * Without sortBy, results come in the order of whichever index the planner picks.
+ */
+public class ProductQuery {
+
+    public enum SortKey { ID, PRICE, RATING, STOCK }
+
+    int minId = Integer.MIN_VALUE;
+    int maxId = Integer.MAX_VALUE;
+    double minPrice = Double.NEGATIVE_INFINITY;
+    double maxPrice = Double.POSITIVE_INFINITY;
+    int minStock = Integer.MIN_VALUE;
+    int maxStock = Integer.MAX_VALUE;
+    double minRating = Double.NEGATIVE_INFINITY;
+    double maxRating = Double.POSITIVE_INFINITY;
+    final List<Predicate<Product>> filters = new ArrayList<>();
+    SortKey sortKey;
+    boolean descending;
+    int offset;
+    int limit = Integer.MAX_VALUE;
+
+    public ProductQuery idBetween(int min, int max) {
+        minId = Math.max(minId, min);
+        maxId = Math.min(maxId, max);
+        return this;
+    }
+
+    public ProductQuery priceBetween(double min, double max) {
+        minPrice = Math.max(minPrice, min);
+        maxPrice = Math.min(maxPrice, max);
+        return this;
+    }
+
+    public ProductQuery stockBetween(int min, int max) {
+        minStock = Math.max(minStock, min);
+        maxStock = Math.min(maxStock, max);
+        return this;
+    }
+
+    public ProductQuery inStock() {
+        return stockBetween(1, Integer.MAX_VALUE);
+    }
+
+    public ProductQuery outOfStock() {
+        return stockBetween(Integer.MIN_VALUE, 0);
+    }
+
+    // Average review rating; products without reviews rate 0.
+    public ProductQuery ratingBetween(double min, double max) {
+        minRating = Math.max(minRating, min);
+        maxRating = Math.min(maxRating, max);
+        return this;
+    }
+
+    public ProductQuery minRating(double min) {
+        return ratingBetween(min, Double.POSITIVE_INFINITY);
+    }
+
+    public ProductQuery where(Predicate<Product> filter) {
+        filters.add(filter);
+        return this;
+    }
+
+    // Ties are broken by product ID in the same direction.
+    public ProductQuery sortBy(SortKey key, boolean descending) {
+        this.sortKey = key;
+        this.descending = descending;
+        return this;
+    }
+
+    public ProductQuery offset(int offset) {
+        if (offset < 0) throw new IllegalArgumentException("offset must not be negative");
+        this.offset = offset;
+        return this;
+    }
+
+    public ProductQuery limit(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("limit must not be negative");
+        this.limit = limit;
+        return this;
+    }
+
+    // 1-based page of size results.
+    public ProductQuery page(int page, int size) {
+        if (page < 1) throw new IllegalArgumentException("page starts at 1");
+        limit(size);
+        return offset((int) Math.min(Integer.MAX_VALUE, (long) (page - 1) * size));
+    }
+
+    boolean hasIdRange() {
+        return minId != Integer.MIN_VALUE || maxId != Integer.MAX_VALUE;
+    }
+
+    boolean hasPriceRange() {
+        return minPrice != Double.NEGATIVE_INFINITY || maxPrice != Double.POSITIVE_INFINITY;
+    }
+
+    boolean hasRatingRange() {
+        return minRating != Double.NEGATIVE_INFINITY || maxRating != Double.POSITIVE_INFINITY;
+    }
+
+    boolean hasStockRange() {
+        return minStock != Integer.MIN_VALUE || maxStock != Integer.MAX_VALUE;
+    }
+
+    boolean usesRating() {
+        return hasRatingRange() || sortKey == SortKey.RATING;
+    }
+}
@@ -0,0 +1,230 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Plans and runs a ProductQuery against the ProductCatalogIndex (ID, price, rating) and
+ * the StockIndex (out-of-stock and low-stock sets).
+ *
+ * Planning: every index that can restrict the query is a candidate access path, and the
+ * rows in each candidate's range are counted, stopping once a count can no longer beat
+ * the best so far, so planning costs at most a few times the size of the winner. The
+ * stock sets and ranged paths are counted first; a path offered only for its sort order
+ * scans the whole catalog, so it takes the catalog's size instead of a count. A path
+ * that already yields the requested sort order is preferred when it reads at most
+ * SORT_BIAS times as many rows, because it can stop after offset + limit matches.
+ *
+ * Execution streams the chosen range: index-resident conditions are checked on the row,
+ * and the product is only fetched for rows that pass them (for stock, where() filters and
+ * the result). Out-of-order paths keep the best offset + limit matches in a bounded heap.
+ */
+public class ProductQueryEngine {
+
+    static final int SORT_BIAS = 4;
+
+    private final ProductCatalogIndex catalog;
+    private final StockIndex stock;
+    private final EntityStore<Product> products;
+
+    public ProductQueryEngine(ProductCatalogIndex catalog, StockIndex stock, EntityStore<Product> products) {
+        this.catalog = catalog;
+        this.stock = stock;
+        this.products = products;
+    }
+
+    private enum Path { ID, PRICE, RATING, OUT_OF_STOCK, LOW_STOCK }
+
+    // Chosen access path with its estimated row count.
+    private static final class Plan {
+        final Path path;
+        final int rows;
+        final boolean ordered;
+
+        Plan(Path path, int rows, boolean ordered) {
+            this.path = path;
+            this.rows = rows;
+            this.ordered = ordered;
+        }
+    }
+
+    // Matching product with its index row (sort keys).
+    private static final class Hit {
+        final ProductCatalogIndex.Row row;
+        final Product product;
+
+        Hit(ProductCatalogIndex.Row row, Product product) {
+            this.row = row;
+            this.product = product;
+        }
+    }
+
+    public CustomLinkedList<Product> execute(ProductQuery q) {
+        CustomLinkedList<Product> result = new CustomLinkedList<>();
+        if (q.limit == 0) return result;
+        Plan plan = plan(q);
+        Iterator<ProductCatalogIndex.Row> rows = open(plan.path, q, plan.ordered && q.descending);
+        if (plan.ordered) {
+            int skip = q.offset;
+            while (rows.hasNext() && result.size() < q.limit) {
+                Hit hit = match(rows.next(), q);
+                if (hit == null) continue;
+                if (skip > 0) skip--;
+                else result.add(hit.product);
+            }
+            return result;
+        }
+        long keep = (long) q.offset + q.limit;
+        Comparator<Hit> order = order(q);
+        PriorityQueue<Hit> best = new PriorityQueue<>(order.reversed()); // Root = worst kept
+        while (rows.hasNext()) {
+            Hit hit = match(rows.next(), q);
+            if (hit == null) continue;
+            best.add(hit);
+            if (best.size() > keep) best.poll();
+        }
+        ArrayList<Hit> sorted = new ArrayList<>(best);
+        sorted.sort(order);
+        for (int i = q.offset; i < sorted.size(); i++) {
+            result.add(sorted.get(i).product);
+        }
+        return result;
+    }
+
+    // Human-readable plan, e.g. "PRICE index, ~120 rows, streamed in sort order".
+    public String explain(ProductQuery q) {
+        Plan plan = plan(q);
+        return plan.path + " index, ~" + plan.rows + " rows, "
+                + (plan.ordered ? "streamed in " + (q.sortKey == null ? "index" : "sort") + " order" : "sorted after filtering");
+    }
+
+    private Plan plan(ProductQuery q) {
+        // Narrow paths first, so their counts cap the wider scans
+        Path[] candidates = new Path[4];
+        int n = 0;
+        if (q.maxStock <= 0) candidates[n++] = Path.OUT_OF_STOCK;
+        else if (q.maxStock <= stock.getThreshold()) candidates[n++] = Path.LOW_STOCK;
+        if (q.hasPriceRange()) candidates[n++] = Path.PRICE;
+        if (q.hasRatingRange()) candidates[n++] = Path.RATING;
+        if (q.hasIdRange()) candidates[n++] = Path.ID;
+        if (!q.hasPriceRange() && q.sortKey == ProductQuery.SortKey.PRICE) candidates[n++] = Path.PRICE;
+        if (!q.hasRatingRange() && q.sortKey == ProductQuery.SortKey.RATING) candidates[n++] = Path.RATING;
+        if (!q.hasIdRange()) candidates[n++] = Path.ID; // Always possible: full scan
+
+        int[] counts = new int[n];
+        int best = -1;
+        long cap = Long.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            counts[i] = isFullScan(candidates[i], q) ? catalog.size() : count(open(candidates[i], q, false), cap);
+            if (best < 0 || counts[i] < counts[best]) {
+                best = i;
+                cap = (long) counts[i] * SORT_BIAS + 1; // Enough to still judge a sort-order path
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (yieldsSortOrder(candidates[i], q) && counts[i] <= (long) counts[best] * SORT_BIAS) {
+                return new Plan(candidates[i], counts[i], true);
+            }
+        }
+        return new Plan(candidates[best], counts[best], q.sortKey == null);
+    }
+
+    private static boolean isFullScan(Path path, ProductQuery q) {
+        switch (path) {
+            case ID: return !q.hasIdRange();
+            case PRICE: return !q.hasPriceRange();
+            case RATING: return !q.hasRatingRange();
+            default: return false;
+        }
+    }
+
+    private static boolean yieldsSortOrder(Path path, ProductQuery q) {
+        if (q.sortKey == null) return false;
+        switch (q.sortKey) {
+            case ID: return path == Path.ID || (!q.descending && (path == Path.OUT_OF_STOCK || path == Path.LOW_STOCK));
+            case PRICE: return path == Path.PRICE;
+            case RATING: return path == Path.RATING;
+            default: return false;
+        }
+    }
+
+    private static int count(Iterator<?> it, long cap) {
+        int n = 0;
+        while (n < cap && it.hasNext()) {
+            it.next();
+            n++;
+        }
+        return n;
+    }
+
+    private Iterator<ProductCatalogIndex.Row> open(Path path, ProductQuery q, boolean descending) {
+        switch (path) {
+            case PRICE: return catalog.prices(q.minPrice, q.maxPrice, descending);
+            case RATING: return catalog.ratings(q.minRating, q.maxRating, descending);
+            case OUT_OF_STOCK: return rowsOf(stock.outOfStockIterator());
+            case LOW_STOCK: return rowsOf(stock.lowStockIterator());
+            default: return catalog.ids(q.minId, q.maxId, descending);
+        }
+    }
+
+    // Catalog rows for the products of a stock set (skipping any not in the catalog).
+    private Iterator<ProductCatalogIndex.Row> rowsOf(Iterator<Product> it) {
+        return new Iterator<ProductCatalogIndex.Row>() {
+            private ProductCatalogIndex.Row next = advance();
+
+            private ProductCatalogIndex.Row advance() {
+                while (it.hasNext()) {
+                    ProductCatalogIndex.Row row = catalog.row(it.next().getProductId());
+                    if (row != null) return row;
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ProductCatalogIndex.Row next() {
+                ProductCatalogIndex.Row row = next;
+                next = advance();
+                return row;
+            }
+        };
+    }
+
+    // Checks the row's indexed attributes first, then fetches the product for the rest.
+    private Hit match(ProductCatalogIndex.Row row, ProductQuery q) {
+        if (row.id < q.minId || row.id > q.maxId) return null;
+        if (!(row.price >= q.minPrice && row.price <= q.maxPrice)) return null;
+        if (!(row.rating >= q.minRating && row.rating <= q.maxRating)) return null;
+        Product p = products.find(row.id);
+        if (p == null) return null;
+        if (q.hasStockRange()) {
+            int s = p.getStock();
+            if (s < q.minStock || s > q.maxStock) return null;
+        }
+        for (Predicate<Product> f : q.filters) {
+            if (!f.test(p)) return null;
+        }
+        return new Hit(row, p);
+    }
+
+    private static Comparator<Hit> order(ProductQuery q) {
+        Comparator<Hit> byId = Comparator.comparingInt(h -> h.row.id);
+        if (q.sortKey == null) return byId;
+        Comparator<Hit> key;
+        switch (q.sortKey) {
+            case PRICE: key = Comparator.comparingDouble(h -> h.row.price); break;
+            case RATING: key = Comparator.comparingDouble(h -> h.row.rating); break;
+            case STOCK: key = Comparator.comparingInt(h -> h.product.getStock()); break;
+            default: key = byId;
+        }
+        key = key.thenComparing(byId);
+        return q.descending ? key.reversed() : key;
+    }
+}
@@ -0,0 +1,125 @@
+package project;
+
+/**
+ * Ranked product search over the name and review-comment TextIndexes.
+ *
+ * The query is split into terms like the indexed text; a term ending in '*' matches
+ * every indexed term with that prefix. A product matches a term if its name or any of
+ * its reviews contains it; with matchAll every term must match (AND), otherwise any
+ * one (OR). The score is the summed term frequency, with name hits weighted
+ * NAME_WEIGHT times a review hit, scaled by (1 + averageRating / 5). Products without a
+ * name entry (removed since their reviews were indexed) are skipped.
+ * The top limit products come from a bounded heap, so ranking is O(m log limit)
+ * for m matching products.
+ */
+public final class ProductSearch {
+
+    public static final int NAME_WEIGHT = 3;
+
+    private ProductSearch() {
+    }
+
+    // IDs of the best-scoring products, best first (ties by ascending ID).
+    public static int[] search(TextIndex names, TextIndex comments, String query, boolean matchAll, int limit) {
+        if (query == null || limit <= 0) return new int[0];
+        IntLongHashMap total = null;
+        for (String piece : query.trim().split("\\s+")) {
+            String[] tokens = TextIndex.tokenize(piece);
+            for (int t = 0; t < tokens.length; t++) {
+                boolean prefix = t == tokens.length - 1 && piece.endsWith("*");
+                IntLongHashMap hits = new IntLongHashMap();
+                names.collect(tokens[t], prefix, (doc, group, tf) -> hits.add(group, (long) NAME_WEIGHT * tf));
+                comments.collect(tokens[t], prefix, (doc, group, tf) -> hits.add(group, tf));
+                if (total == null) {
+                    total = hits;
+                } else if (matchAll) {
+                    total = intersect(total, hits);
+                } else {
+                    hits.forEach(total::add);
+                }
+                if (matchAll && total.size() == 0) return new int[0];
+            }
+        }
+        if (total == null) return new int[0];
+        return top(total, names, comments, limit);
+    }
+
+    // Products in both maps, with their frequencies summed.
+    private static IntLongHashMap intersect(IntLongHashMap a, IntLongHashMap b) {
+        IntLongHashMap small = a.size() <= b.size() ? a : b;
+        IntLongHashMap large = small == a ? b : a;
+        IntLongHashMap result = new IntLongHashMap(small.size());
+        small.forEach((key, value) -> {
+            long other = large.get(key);
+            if (other >= 0) result.put(key, value + other);
+        });
+        return result;
+    }
+
+    private static int[] top(IntLongHashMap matches, TextIndex names, TextIndex comments, int limit) {
+        int capacity = Math.min(limit, matches.size());
+        if (capacity == 0) return new int[0];
+        int[] ids = new int[capacity];
+        double[] scores = new double[capacity];
+        int[] size = {0};
+        // Min-heap on (score, -id): the root is the weakest hit kept so far
+        matches.forEach((id, tf) -> {
+            if (!names.contains(id)) return;
+            double score = tf * (1.0 + comments.averageRating(id) / 5.0);
+            if (size[0] < capacity) {
+                ids[size[0]] = id;
+                scores[size[0]] = score;
+                siftUp(ids, scores, size[0]++);
+            } else if (better(score, id, scores[0], ids[0])) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(ids, scores, capacity);
+            }
+        });
+        // Pop the weakest repeatedly to fill the result from the back
+        int[] result = new int[size[0]];
+        for (int n = size[0]; n > 0; n--) {
+            result[n - 1] = ids[0];
+            ids[0] = ids[n - 1];
+            scores[0] = scores[n - 1];
+            siftDown(ids, scores, n - 1);
+        }
+        return result;
+    }
+
+    private static boolean better(double score, int id, double otherScore, int otherId) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private static void siftUp(int[] ids, double[] scores, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(scores[parent], ids[parent], scores[i], ids[i])) break;
+            swap(ids, scores, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] ids, double[] scores, int n) {
+        int i = 0;
+        while (true) {
+            int weakest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < n && better(scores[weakest], ids[weakest], scores[left], ids[left])) weakest = left;
+            if (right < n && better(scores[weakest], ids[weakest], scores[right], ids[right])) weakest = right;
+            if (weakest == i) return;
+            swap(ids, scores, i, weakest);
+            i = weakest;
+        }
+    }
+
+    private static void swap(int[] ids, double[] scores, int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        double s = scores[i];
+        scores[i] = scores[j];
+        scores[j] = s;
+    }
+}
@@ -0,0 +1,16 @@
+package project;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts an entity's own fields to and from a binary record for DiskBackedStore.
+ * Relationships (reviews, order histories) are not part of the record.
+ */
+public interface RecordCodec<T> {
+
+    void write(T value, DataOutput out) throws IOException;
+
+    T read(DataInput in) throws IOException;
+}
@@ -0,0 +1,158 @@
+package project;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Line-oriented TCP front end for an ECommerceSystem on the loopback interface, so many
+ * concurrent clients can drive it (see LoadGenerator).
+ *
+ * Protocol (UTF-8): each request is one BatchRunner command line, e.g.
+ * "find-product 42" or "place-order 9001 7 2024-05-01 3:2 11". Each response is the
+ * result text, prefixed with "ok " or "fail ", followed by an empty line; multi-line
+ * results (e.g. "metrics") keep their line breaks but never contain an empty line.
+ * A connection serves requests in order until the client closes it. Commands run
+ * concurrently, so the system behind the BatchRunner must use a concurrent StorageMode.
+ * "load" and "save" are refused: they read and overwrite the server's data files, and a
+ * save would rewrite the file a lazy-mode index reads from while other clients use it.
+ * Run them from a batch script or the menu instead.
+ *
+ * Threading: one acceptor thread, and one thread per open connection with blocking I/O
+ * (the JDK this builds against has no virtual threads). Threads come from a cached pool,
+ * so every connection is served at once however many are open, and idle threads are
+ * reused or retired.
+ */
+public class RequestServer implements AutoCloseable {
+
+    private static final int ACCEPT_BACKLOG = 256; // Connections the OS queues before accept()
+    private static final Set<String> LOCAL_ONLY = Set.of("load", "save");
+
+    private final BatchRunner commands;
+    private ServerSocket socket;
+    private ExecutorService pool;
+    private Thread acceptor;
+    private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+    private final AtomicLong requests = new AtomicLong();
+
+    public RequestServer(BatchRunner commands) {
+        this.commands = commands;
+    }
+
+    // Binds 127.0.0.1:port (0 picks a free port) and starts serving; returns the bound port.
+    public synchronized int start(int port) throws IOException {
+        if (socket != null) throw new IllegalStateException("already started");
+        socket = new ServerSocket(port, ACCEPT_BACKLOG, InetAddress.getLoopbackAddress());
+        AtomicInteger ids = new AtomicInteger();
+        pool = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "request-worker-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        acceptor = new Thread(this::acceptLoop, "request-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return socket.getLocalPort();
+    }
+
+    // Stops accepting, closes open connections and releases the port.
+    @Override
+    public synchronized void close() throws IOException {
+        if (socket == null) return;
+        socket.close();
+        pool.shutdownNow();
+        for (Socket c : open) c.close(); // Unblocks workers waiting in readLine
+    }
+
+    // Blocks until the server is closed.
+    public void awaitTermination() throws InterruptedException {
+        acceptor.join();
+    }
+
+    public int getOpenConnections() {
+        return open.size();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    private void acceptLoop() {
+        while (true) {
+            Socket client;
+            try {
+                client = socket.accept();
+            } catch (IOException e) {
+                return; // Closed
+            }
+            try {
+                pool.execute(() -> serve(client));
+            } catch (RejectedExecutionException e) { // Closed meanwhile
+                try {
+                    client.close();
+                } catch (IOException ignored) {
+                    // Already unusable
+                }
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        open.add(client);
+        try (Socket c = client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(c.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(c.getOutputStream(), StandardCharsets.UTF_8))) {
+            c.setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                String command = BatchRunner.tokenize(line)[0]; // As BatchRunner dispatches it
+                String result = LOCAL_ONLY.contains(command)
+                        ? "failed: " + command + " is not served over the network"
+                        : commands.evaluate(line);
+                requests.incrementAndGet();
+                writeResponse(out, BatchRunner.isFailure(result) ? "fail " : "ok ", result);
+                if (!in.ready()) out.flush(); // Pipelined requests share one flush
+            }
+        } catch (IOException e) {
+            // Client went away or the server is closing: nothing to answer to
+        } finally {
+            open.remove(client);
+        }
+    }
+
+    private static void writeResponse(Writer out, String prefix, String result) throws IOException {
+        out.write(prefix);
+        boolean lineStart = false;
+        for (int i = 0; i < result.length(); i++) {
+            char ch = result.charAt(i);
+            if (ch == '\r') continue;
+            if (ch == '\n') {
+                if (lineStart) continue; // Drops empty lines, which would end the response
+                out.write('\n');
+                lineStart = true;
+            } else {
+                out.write(ch);
+                lineStart = false;
+            }
+        }
+        if (!lineStart) out.write('\n');
+        out.write('\n');
+    }
+}
@@ -4,8 +4,8 @@ public class Review {
     private int reviewId;
     private int productId;
     private int customerId;
-    private int rating; 
-    private String comment;
+    private volatile int rating; 
+    private volatile String comment;
     
     public Review(int rId, int pId, int cId, int r, String comment) {
         reviewId = rId;
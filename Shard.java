@@ -0,0 +1,116 @@
+package project;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+/**
+ * One partition of a ShardedECommerceSystem: the products, customers and orders whose IDs
+ * hash to it, each in a plain single-threaded BST, owned by one worker thread.
+ *
+ * Other threads never touch the stores. They post tasks to the shard's mailbox (an
+ * unbounded FIFO queue) with call(), and the worker runs them one at a time, so operations
+ * on a shard are serialized without locks and two shards never contend with each other.
+ * Entities handed out by a task are shared objects as usual (Product, Order and Customer
+ * guard their own state).
+ */
+public class Shard {
+
+    // Replaced wholesale by reloads; only the worker thread reads or writes them
+    private BST<Product> products = new BST<>();
+    private BST<Customer> customers = new BST<>();
+    private BST<Order> orders = new BST<>();
+
+    private static final Runnable STOP = () -> { };
+
+    private final LinkedBlockingQueue<Runnable> mailbox = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public Shard(String name) {
+        worker = new Thread(this::runLoop, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Queues task to run on the worker thread; the future completes with its result, or
+     * exceptionally if it throws or the shard has been stopped.
+     */
+    public <T> CompletableFuture<T> call(Function<Shard, T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (!running) {
+            result.completeExceptionally(new IllegalStateException(worker.getName() + " is stopped"));
+            return result;
+        }
+        Runnable queued = () -> {
+            try {
+                result.complete(task.apply(this));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        };
+        mailbox.add(queued);
+        // stop() may have run since the check, and the worker may already be past its final
+        // drain. Whoever takes the task out of the mailbox first settles it: the worker by
+        // running it, or this thread by failing it.
+        if (!running && mailbox.remove(queued)) {
+            result.completeExceptionally(new IllegalStateException(worker.getName() + " is stopped"));
+        }
+        return result;
+    }
+
+    // Stops the worker once the tasks queued so far have run.
+    public void stop() {
+        running = false;
+        mailbox.add(STOP);
+    }
+
+    public int pendingCount() {
+        return mailbox.size();
+    }
+
+    private void runLoop() {
+        while (true) {
+            Runnable task;
+            try {
+                task = mailbox.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == STOP) break;
+            task.run();
+        }
+        // Tasks that raced with stop() still run, so no caller waits forever
+        Runnable late;
+        while ((late = mailbox.poll()) != null) {
+            if (late != STOP) late.run();
+        }
+    }
+
+    // ---------------- Store access (worker thread only) ---------------- //
+
+    EntityStore<Product> products() {
+        return products;
+    }
+
+    EntityStore<Customer> customers() {
+        return customers;
+    }
+
+    EntityStore<Order> orders() {
+        return orders;
+    }
+
+    void resetProducts() {
+        products = new BST<>();
+    }
+
+    void resetCustomers() {
+        customers = new BST<>();
+    }
+
+    void resetOrders() {
+        orders = new BST<>();
+    }
+}
@@ -0,0 +1,629 @@
+package project;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * ECommerceSystem's core operations partitioned over N Shards, each owned by one worker
+ * thread. Products, customers and orders are each partitioned by their own ID (a product
+ * and the customer with the same ID may live on different shards).
+ *
+ * - Single-entity operations are routed to the owning shard's mailbox and run on its
+ *   thread, so writes to different shards proceed in parallel with no shared lock.
+ * - placeOrder spans shards: it looks up the customer, has every product shard involved
+ *   reserve its lines all-or-nothing (concurrently), releases the reservations that
+ *   succeeded if any shard is short, then stores the order on its order shard and appends
+ *   it to the customer's history on the customer shard. As with ECommerceSystem, the
+ *   operation as a whole is not atomic.
+ * - Range and aggregate queries scatter one task to every shard and gather the partial
+ *   results; lists are merged in ascending ID order like the single-node queries.
+ *
+ * Reviews, text search and ECommerceSystem's secondary indexes are not sharded.
+ * Call close() to stop the worker threads.
+ */
+public class ShardedECommerceSystem implements AutoCloseable {
+
+    private static final int LOAD_BATCH = 1024; // Rows per mailbox message while loading
+    private static final int CORRUPT_LINE_SAMPLES = 10;
+
+    private final Shard[] shards;
+    private final SystemMetrics metrics = new SystemMetrics();
+    private volatile LogSink log = new AsyncLogSink(System.out, LogLevel.WARN);
+
+    public ShardedECommerceSystem() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedECommerceSystem(int shardCount) {
+        if (shardCount < 1) throw new IllegalArgumentException("shardCount must be positive");
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard("shard-" + i);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public void setLogSink(LogSink log) {
+        this.log = log;
+    }
+
+    public LogSink getLogSink() {
+        return log;
+    }
+
+    // Stops every shard's worker once its queued tasks have run.
+    @Override
+    public void close() {
+        for (Shard s : shards) s.stop();
+    }
+
+    // Shard owning id: Fibonacci hashing spreads sequential IDs, then scales into [0, n).
+    int shardOf(int id) {
+        long h = (id * 0x9E3779B9L) & 0xFFFFFFFFL;
+        return (int) ((h * shards.length) >>> 32);
+    }
+
+    private Shard shardFor(int id) {
+        return shards[shardOf(id)];
+    }
+
+    // Waits for a shard task, rethrowing what it threw.
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    public MetricsSnapshot getMetricsSnapshot() {
+        int[] counts = new int[3];
+        for (int[] part : scatter(s -> new int[] { s.products().size(), s.customers().size(), s.orders().size() })) {
+            for (int i = 0; i < 3; i++) counts[i] += part[i];
+        }
+        return metrics.snapshot(counts[0], counts[1], counts[2]);
+    }
+
+    public void resetMetrics() {
+        metrics.reset();
+    }
+
+    // ================= DATA LOADING ================= //
+
+    /**
+     * Loads products from CSV, replacing every shard's products. Rows are parsed on the
+     * calling thread and sent to their shards in batches, so shards insert in parallel.
+     */
+    public LoadReport loadProductsFromCSV(String filename) {
+        LoadBatches<Product> batches = new LoadBatches<>(Shard::resetProducts,
+                (s, batch) -> { for (Product p : batch) s.products().insert(p.getProductId(), p); });
+        return load(filename, "product", line -> {
+            String[] data = ECommerceSystem.parseCSVLine(line);
+            Product p = new Product(Integer.parseInt(data[0]), data[1].replace("\"", ""),
+                    Double.parseDouble(data[2]), Integer.parseInt(data[3]));
+            batches.add(shardOf(p.getProductId()), p);
+        }, batches);
+    }
+
+    // Loads customers from CSV, replacing every shard's customers.
+    public LoadReport loadCustomersFromCSV(String filename) {
+        LoadBatches<Customer> batches = new LoadBatches<>(Shard::resetCustomers,
+                (s, batch) -> { for (Customer c : batch) s.customers().insert(c.getCustomerId(), c); });
+        return load(filename, "customer", line -> {
+            String[] data = ECommerceSystem.parseCSVLine(line);
+            Customer c = new Customer(Integer.parseInt(data[0]), data[1].replace("\"", ""), data[2].replace("\"", ""));
+            batches.add(shardOf(c.getCustomerId()), c);
+        }, batches);
+    }
+
+    /**
+     * Loads orders from CSV, replacing every shard's orders, and appends each order to its
+     * customer's history (customers must be loaded first).
+     */
+    public LoadReport loadOrdersFromCSV(String filename) {
+        LoadBatches<Order> histories = new LoadBatches<>(null, (s, batch) -> {
+            for (Order o : batch) {
+                Customer c = s.customers().find(o.getCustomerId());
+                if (c != null) c.addOrder(o);
+            }
+        });
+        LoadBatches<Order> batches = new LoadBatches<>(Shard::resetOrders,
+                (s, batch) -> { for (Order o : batch) s.orders().insert(o.getOrderId(), o); });
+        LoadReport report = load(filename, "order", line -> {
+            Order o = ECommerceSystem.parseOrder(line);
+            batches.add(shardOf(o.getOrderId()), o);
+            histories.add(shardOf(o.getCustomerId()), o);
+        }, batches);
+        histories.finish();
+        return report;
+    }
+
+    public LoadReport loadAllFromCSV(String productFile, String customerFile, String orderFile) {
+        CustomLinkedList<LoadReport> reports = new CustomLinkedList<>();
+        reports.add(loadProductsFromCSV(productFile));
+        reports.add(loadCustomersFromCSV(customerFile));
+        reports.add(loadOrdersFromCSV(orderFile));
+        return LoadReport.combine("all", reports);
+    }
+
+    private interface RowParser {
+        void parse(String line) throws Exception;
+    }
+
+    private LoadReport load(String filename, String entity, RowParser parser, LoadBatches<?> batches) {
+        LoadReport report = new LoadReport(filename);
+        CorruptionReporter corrupt = new CorruptionReporter(log, entity, CORRUPT_LINE_SAMPLES);
+        batches.start();
+        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
+            String line = br.readLine(); // Skip CSV header
+            while ((line = br.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                try {
+                    parser.parse(line);
+                    report.recordAccepted();
+                } catch (Exception e) {
+                    corrupt.report(line);
+                    report.recordRejected(e);
+                }
+            }
+            corrupt.finish();
+        } catch (IOException e) {
+            log.log(LogLevel.ERROR, "Error reading " + entity + " file: " + e.getMessage());
+            report.recordError(e.getMessage());
+        }
+        batches.finish();
+        report.finish(new File(filename).length());
+        return report;
+    }
+
+    // Per-shard batches of parsed rows, each sent to its shard's mailbox when full.
+    private final class LoadBatches<T> {
+        private final BiConsumer<Shard, ArrayList<T>> apply;
+        private final Consumer<Shard> reset; // Run on every shard before the first batch, or null
+        private final ArrayList<CompletableFuture<Void>> sent = new ArrayList<>();
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private final ArrayList<T>[] pending = new ArrayList[shards.length];
+
+        LoadBatches(Consumer<Shard> reset, BiConsumer<Shard, ArrayList<T>> apply) {
+            this.reset = reset;
+            this.apply = apply;
+        }
+
+        void start() {
+            if (reset == null) return;
+            for (Shard shard : shards) {
+                sent.add(shard.call(s -> {
+                    reset.accept(s);
+                    return null;
+                }));
+            }
+        }
+
+        void add(int shard, T row) {
+            if (pending[shard] == null) pending[shard] = new ArrayList<>(LOAD_BATCH);
+            pending[shard].add(row);
+            if (pending[shard].size() == LOAD_BATCH) send(shard);
+        }
+
+        private void send(int shard) {
+            ArrayList<T> batch = pending[shard];
+            pending[shard] = null;
+            sent.add(shards[shard].call(s -> {
+                apply.accept(s, batch);
+                return null;
+            }));
+        }
+
+        // Sends the partial batches and waits until every shard has applied its rows.
+        void finish() {
+            for (int i = 0; i < shards.length; i++) {
+                if (pending[i] != null) send(i);
+            }
+            for (CompletableFuture<Void> f : sent) await(f);
+            sent.clear();
+        }
+    }
+
+    // ================= PRODUCTS AND CUSTOMERS ================= //
+
+    public void addProduct(Product product) {
+        int productId = product.getProductId();
+        await(shardFor(productId).call(s -> {
+            s.products().insert(productId, product);
+            return null;
+        }));
+    }
+
+    public boolean removeProduct(int productId) {
+        return await(shardFor(productId).call(s -> s.products().delete(productId)));
+    }
+
+    public boolean updateProduct(int productId, String newName, double newPrice, int newStock) {
+        return await(shardFor(productId).call(s -> {
+            Product product = s.products().find(productId);
+            if (product == null) return false;
+            synchronized (product) { // Apply all three fields as one update
+                product.setName(newName);
+                product.setPrice(newPrice);
+                product.setStock(newStock);
+            }
+            return true;
+        }));
+    }
+
+    public Product findProductById(int productId) {
+        long start = System.nanoTime();
+        try {
+            return await(shardFor(productId).call(s -> s.products().find(productId)));
+        } finally {
+            metrics.record(Operation.FIND_PRODUCT, start);
+        }
+    }
+
+    public void registerCustomer(Customer customer) {
+        int customerId = customer.getCustomerId();
+        await(shardFor(customerId).call(s -> {
+            s.customers().insert(customerId, customer);
+            return null;
+        }));
+    }
+
+    public Customer findCustomerById(int customerId) {
+        long start = System.nanoTime();
+        try {
+            return await(shardFor(customerId).call(s -> s.customers().find(customerId)));
+        } finally {
+            metrics.record(Operation.FIND_CUSTOMER, start);
+        }
+    }
+
+    // A customer's orders, most recent first: skips offset, returns at most limit.
+    public CustomLinkedList<Order> getRecentOrders(int customerId, int offset, int limit) {
+        return await(shardFor(customerId).call(s -> {
+            Customer c = s.customers().find(customerId);
+            return c == null ? new CustomLinkedList<>() : c.getRecentOrders(offset, limit);
+        }));
+    }
+
+    // ================= ORDERS ================= //
+
+    /**
+     * Prices the order at current product prices and reserves its stock all-or-nothing
+     * across the product shards involved, then records it. Returns false if the customer
+     * is unknown or some product is short.
+     */
+    public boolean placeOrder(Order order) {
+        long start = System.nanoTime();
+        try {
+            int customerId = order.getCustomerId();
+            Shard customerShard = shardFor(customerId);
+            Customer customer = await(customerShard.call(s -> s.customers().find(customerId)));
+            if (customer == null) {
+                log.log(LogLevel.INFO, "Customer not found.");
+                return false;
+            }
+            int[] ids = ECommerceSystem.sortedProductIds(order);
+            int[][] parts = splitByShard(ids);
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            CompletableFuture<OrderLines>[] reserving = new CompletableFuture[shards.length];
+            for (int i = 0; i < shards.length; i++) {
+                int[] part = parts[i];
+                if (part != null) reserving[i] = shards[i].call(s -> reserve(s, part));
+            }
+            OrderLines[] reserved = new OrderLines[shards.length];
+            boolean shortage = false;
+            for (int i = 0; i < shards.length; i++) {
+                if (reserving[i] == null) continue;
+                reserved[i] = await(reserving[i]);
+                if (reserved[i] == null) {
+                    shortage = true;
+                    parts[i] = null; // That shard already rolled its own lines back
+                }
+            }
+            if (shortage) {
+                releaseStock(parts);
+                log.log(LogLevel.INFO, "Insufficient stock. Order not placed.");
+                return false;
+            }
+            OrderLines lines = mergeLines(ids, reserved);
+            order.setLines(lines);
+            order.setTotalPrice(lines.getTotal());
+
+            int orderId = order.getOrderId();
+            CompletableFuture<Void> stored = shardFor(orderId).call(s -> {
+                s.orders().insert(orderId, order);
+                return null;
+            });
+            CompletableFuture<Void> appended = customerShard.call(s -> {
+                customer.addOrder(order);
+                return null;
+            });
+            await(stored);
+            await(appended);
+            if (log.isEnabled(LogLevel.INFO)) log.log(LogLevel.INFO, "Order placed. Total: $" + lines.getTotal());
+            return true;
+        } finally {
+            metrics.record(Operation.PLACE_ORDER, start);
+        }
+    }
+
+    // Runs on a product shard: reserves the lines for its sorted product IDs.
+    private static OrderLines reserve(Shard s, int[] ids) {
+        Product[] lineProducts = new Product[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            lineProducts[i] = (i > 0 && ids[i] == ids[i - 1]) ? lineProducts[i - 1] : s.products().find(ids[i]);
+        }
+        return ECommerceSystem.reserveStock(ids, lineProducts);
+    }
+
+    // Splits sorted product IDs by owning shard (null where a shard has none); parts stay sorted.
+    private int[][] splitByShard(int[] ids) {
+        int[] counts = new int[shards.length];
+        for (int id : ids) counts[shardOf(id)]++;
+        int[][] parts = new int[shards.length][];
+        int[] filled = new int[shards.length];
+        for (int id : ids) {
+            int s = shardOf(id);
+            if (parts[s] == null) parts[s] = new int[counts[s]];
+            parts[s][filled[s]++] = id;
+        }
+        return parts;
+    }
+
+    // Combines the per-shard lines into one OrderLines in product ID order.
+    private OrderLines mergeLines(int[] ids, OrderLines[] reserved) {
+        int lines = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) lines++;
+        }
+        int[] lineIds = new int[lines];
+        int[] quantities = new int[lines];
+        double[] unitPrices = new double[lines];
+        int[] cursor = new int[shards.length];
+        int line = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0 && ids[i] == ids[i - 1]) continue;
+            int s = shardOf(ids[i]);
+            int l = cursor[s]++;
+            lineIds[line] = ids[i];
+            quantities[line] = reserved[s].getQuantity(l);
+            unitPrices[line++] = reserved[s].getUnitPrice(l);
+        }
+        return new OrderLines(lineIds, quantities, unitPrices);
+    }
+
+    // Returns one unit per product ID entry to stock, each shard releasing its own part.
+    private void releaseStock(int[][] parts) {
+        ArrayList<CompletableFuture<Void>> releasing = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            int[] ids = parts[i];
+            if (ids == null) continue;
+            releasing.add(shards[i].call(s -> {
+                for (int a = 0; a < ids.length; ) {
+                    int b = a;
+                    while (b < ids.length && ids[b] == ids[a]) b++;
+                    Product p = s.products().find(ids[a]);
+                    if (p != null) p.releaseStock(b - a);
+                    a = b;
+                }
+                return null;
+            }));
+        }
+        for (CompletableFuture<Void> f : releasing) await(f);
+    }
+
+    public Order findOrderById(int orderId) {
+        long start = System.nanoTime();
+        try {
+            return await(shardFor(orderId).call(s -> s.orders().find(orderId)));
+        } finally {
+            metrics.record(Operation.FIND_ORDER, start);
+        }
+    }
+
+    // An order and its status code before a change made on its shard (order null if not found).
+    private static final class StatusChange {
+        final Order order;
+        final int previous;
+
+        StatusChange(Order order, int previous) {
+            this.order = order;
+            this.previous = previous;
+        }
+    }
+
+    // Cancels the order and returns its reserved units to stock (only on the first cancel).
+    public boolean cancelOrder(int orderId) {
+        long start = System.nanoTime();
+        try {
+            StatusChange change = await(shardFor(orderId).call(s -> {
+                Order o = s.orders().find(orderId);
+                if (o == null) return new StatusChange(null, -1);
+                synchronized (o) {
+                    int previous = o.getStatusCode();
+                    o.cancelOrder();
+                    return new StatusChange(o, previous);
+                }
+            }));
+            if (change.order == null) {
+                log.log(LogLevel.INFO, "Order not found.");
+                return false;
+            }
+            if (!OrderStatus.isCancelled(change.previous)) {
+                releaseStock(splitByShard(ECommerceSystem.sortedProductIds(change.order)));
+                refreshCustomerSpend(change.order);
+            }
+            return true;
+        } finally {
+            metrics.record(Operation.CANCEL_ORDER, start);
+        }
+    }
+
+    public boolean updateOrderStatus(int orderId, String newStatus) {
+        long start = System.nanoTime();
+        try {
+            if ("Cancelled".equalsIgnoreCase(newStatus)) {
+                return cancelOrder(orderId); // Route through cancel so stock is released
+            }
+            StatusChange change = await(shardFor(orderId).call(s -> {
+                Order o = s.orders().find(orderId);
+                if (o == null) return new StatusChange(null, -1);
+                synchronized (o) {
+                    int previous = o.getStatusCode();
+                    if (!OrderStatus.isCancelled(previous)) o.updateStatus(newStatus); // Cancelled is final
+                    return new StatusChange(o, previous);
+                }
+            }));
+            if (change.order == null) {
+                log.log(LogLevel.INFO, "Order not found.");
+                return false;
+            }
+            if (OrderStatus.isCancelled(change.previous)) {
+                log.log(LogLevel.INFO, "Cancelled orders cannot be reinstated.");
+                return false;
+            }
+            return true;
+        } finally {
+            metrics.record(Operation.UPDATE_ORDER_STATUS, start);
+        }
+    }
+
+    private void refreshCustomerSpend(Order order) {
+        int customerId = order.getCustomerId();
+        await(shardFor(customerId).call(s -> {
+            Customer c = s.customers().find(customerId);
+            if (c != null) c.refreshOrder(order);
+            return null;
+        }));
+    }
+
+    // ================= SCATTER-GATHER QUERIES ================= //
+
+    public CustomLinkedList<Product> getProductsInPriceRange(double min, double max) {
+        long start = System.nanoTime();
+        try {
+            return gather(s -> {
+                CustomLinkedList<Product> result = new CustomLinkedList<>();
+                for (Product p : s.products().getAll()) {
+                    if (p.getPrice() >= min && p.getPrice() <= max) result.add(p);
+                }
+                return result;
+            }, Product::getProductId);
+        } finally {
+            metrics.record(Operation.PRODUCTS_IN_PRICE_RANGE, start);
+        }
+    }
+
+    public CustomLinkedList<Product> getOutOfStockProducts() {
+        long start = System.nanoTime();
+        try {
+            return gather(s -> {
+                CustomLinkedList<Product> result = new CustomLinkedList<>();
+                for (Product p : s.products().getAll()) {
+                    if (p.isOutOfStock()) result.add(p);
+                }
+                return result;
+            }, Product::getProductId);
+        } finally {
+            metrics.record(Operation.OUT_OF_STOCK_PRODUCTS, start);
+        }
+    }
+
+    // Orders dated within [startDate, endDate] (YYYY-MM-DD), in ascending order ID order.
+    public CustomLinkedList<Order> getOrdersBetweenDates(String startDate, String endDate) {
+        long start = System.nanoTime();
+        try {
+            return gather(s -> {
+                CustomLinkedList<Order> result = new CustomLinkedList<>();
+                for (Order o : s.orders().getAll()) {
+                    String date = o.getOrderDate();
+                    if (date.compareTo(startDate) >= 0 && date.compareTo(endDate) <= 0) result.add(o);
+                }
+                return result;
+            }, Order::getOrderId);
+        } finally {
+            metrics.record(Operation.ORDERS_BETWEEN_DATES, start);
+        }
+    }
+
+    /**
+     * OrderAnalytics over the orders dated within [startDate, endDate] (null = open). Each
+     * shard only snapshots its orders; the aggregation runs on the fork-join pool so the
+     * shard threads are not held up by it.
+     */
+    public OrderAnalytics getOrderAnalytics(String startDate, String endDate) {
+        long start = System.nanoTime();
+        try {
+            int total = 0;
+            CustomLinkedList<CustomLinkedList<Order>> parts = scatter(s -> s.orders().getAll());
+            for (CustomLinkedList<Order> part : parts) total += part.size();
+            Order[] snapshot = new Order[total];
+            int n = 0;
+            for (CustomLinkedList<Order> part : parts) {
+                for (Order o : part) snapshot[n++] = o;
+            }
+            return OrderAnalytics.compute(snapshot, startDate, endDate, id -> {
+                Product p = await(shardFor(id).call(s -> s.products().find(id)));
+                return p == null ? 0.0 : p.getPrice();
+            });
+        } finally {
+            metrics.record(Operation.ORDER_ANALYTICS, start);
+        }
+    }
+
+    // Runs query on every shard concurrently; results in shard order.
+    private <T> CustomLinkedList<T> scatter(Function<Shard, T> query) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        CompletableFuture<T>[] parts = new CompletableFuture[shards.length];
+        for (int i = 0; i < shards.length; i++) parts[i] = shards[i].call(query);
+        CustomLinkedList<T> results = new CustomLinkedList<>();
+        for (CompletableFuture<T> part : parts) results.add(await(part));
+        return results;
+    }
+
+    // Scatters query and k-way merges the per-shard lists (each ascending by idOf).
+    private <T> CustomLinkedList<T> gather(Function<Shard, CustomLinkedList<T>> query, ToIntFunction<T> idOf) {
+        CustomLinkedList<CustomLinkedList<T>> parts = scatter(query);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Iterator<T>[] cursors = new Iterator[shards.length];
+        Object[] heads = new Object[shards.length];
+        int i = 0;
+        for (CustomLinkedList<T> part : parts) {
+            cursors[i] = part.iterator();
+            heads[i] = cursors[i].hasNext() ? cursors[i].next() : null;
+            i++;
+        }
+        CustomLinkedList<T> merged = new CustomLinkedList<>();
+        while (true) {
+            int min = -1;
+            for (int s = 0; s < heads.length; s++) {
+                if (heads[s] == null) continue;
+                if (min < 0 || idOf.applyAsInt(head(heads, s)) < idOf.applyAsInt(head(heads, min))) min = s;
+            }
+            if (min < 0) return merged;
+            merged.add(head(heads, min));
+            heads[min] = cursors[min].hasNext() ? cursors[min].next() : null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T head(Object[] heads, int s) {
+        return (T) heads[s];
+    }
+}
@@ -0,0 +1,44 @@
+package project;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Lock-free EntityStore backed by a concurrent skip list.
+ * insert/find/delete are non-blocking and scale with cores: there is no
+ * tree root for writers to contend on, only CAS on the affected skip-list links.
+ * getAll() is weakly consistent: it returns every entry present for the whole
+ * traversal in key order and may or may not include entries changed during it.
+ */
+public class SkipListStore<T> implements EntityStore<T> {
+
+    private final ConcurrentSkipListMap<Integer, T> map = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void insert(int key, T data) {
+        map.put(key, data);
+    }
+
+    @Override
+    public T find(int key) {
+        return map.get(key);
+    }
+
+    @Override
+    public boolean delete(int key) {
+        return map.remove(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public CustomLinkedList<T> getAll() {
+        CustomLinkedList<T> list = new CustomLinkedList<>();
+        for (T data : map.values()) {
+            list.add(data);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,158 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Live sets of out-of-stock and low-stock products, kept up to date by the
+ * StockListener callbacks of the products it tracks, so listing them is O(k).
+ *
+ * Membership is only re-checked when a change crosses zero or the low-stock threshold.
+ * The re-check reads the current stock under the product's lock, so the last re-check
+ * for a product always sees its latest crossing, whatever order concurrent updates
+ * finish in. Alerts fire once per downward crossing of the threshold.
+ * Every change is also forwarded to an optional downstream listener (e.g. change events).
+ * Loaders fill a Builder instead, which adds each set's members in ascending ID order.
+ */
+public class StockIndex implements StockListener {
+
+    private final ConcurrentSkipListMap<Integer, Product> outOfStock = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Integer, Product> lowStock = new ConcurrentSkipListMap<>();
+    private final CopyOnWriteArrayList<LowStockListener> subscribers;
+    private final StockListener downstream; // May be null
+    private volatile int threshold;
+
+    public StockIndex(int threshold, CopyOnWriteArrayList<LowStockListener> subscribers) {
+        this(threshold, subscribers, null);
+    }
+
+    public StockIndex(int threshold, CopyOnWriteArrayList<LowStockListener> subscribers, StockListener downstream) {
+        this.threshold = threshold;
+        this.subscribers = subscribers;
+        this.downstream = downstream;
+    }
+
+    // Starts tracking p (replacing any product with the same ID).
+    public void track(Product p) {
+        p.setStockListener(this);
+        reconcile(p);
+    }
+
+    /**
+     * Tracks the products of a new index. Only products at or below the threshold are
+     * kept; build() sorts them and fills each set in order, instead of a skip-list lookup
+     * per product. Not thread-safe, and the products must not change stock until the
+     * built index is published.
+     */
+    public static final class Builder {
+        private final StockIndex index;
+        private final ArrayList<Product> members = new ArrayList<>();
+
+        public Builder(int threshold, CopyOnWriteArrayList<LowStockListener> subscribers, StockListener downstream) {
+            index = new StockIndex(threshold, subscribers, downstream);
+        }
+
+        public void track(Product p) {
+            p.setStockListener(index);
+            int stock = p.getStock();
+            if (stock == 0 || stock <= index.threshold) members.add(p);
+        }
+
+        public void untrack(Product p) {
+            if (p != null && p.getStockListener() == index) p.setStockListener(null);
+        }
+
+        public StockIndex build() {
+            members.sort(Comparator.comparingInt(Product::getProductId));
+            for (Product p : members) {
+                if (p.getStockListener() != index) continue; // Replaced later
+                int stock = p.getStock();
+                if (stock == 0) index.outOfStock.put(p.getProductId(), p);
+                if (stock <= index.threshold) index.lowStock.put(p.getProductId(), p);
+            }
+            members.clear();
+            return index;
+        }
+    }
+
+    // Stops tracking p, e.g. when it is removed or replaced.
+    public void untrack(Product p) {
+        if (p == null || p.getStockListener() != this) return;
+        p.setStockListener(null);
+        outOfStock.remove(p.getProductId(), p);
+        lowStock.remove(p.getProductId(), p);
+    }
+
+    @Override
+    public void stockChanged(Product p, int oldStock, int newStock) {
+        if (downstream != null) downstream.stockChanged(p, oldStock, newStock);
+        int t = threshold;
+        boolean crossedZero = (oldStock == 0) != (newStock == 0);
+        boolean crossedThreshold = (oldStock <= t) != (newStock <= t);
+        if (crossedZero || crossedThreshold) reconcile(p);
+        if (crossedThreshold && newStock <= t) {
+            for (LowStockListener s : subscribers) {
+                s.onLowStock(p, newStock, t);
+            }
+        }
+    }
+
+    private void reconcile(Product p) {
+        synchronized (p) {
+            if (p.getStockListener() != this) return; // Untracked meanwhile
+            int stock = p.getStock();
+            Integer id = p.getProductId();
+            if (stock == 0) outOfStock.put(id, p);
+            else outOfStock.remove(id, p);
+            if (stock <= threshold) lowStock.put(id, p);
+            else lowStock.remove(id, p);
+        }
+    }
+
+    // Products with zero stock in ascending ID order; O(k).
+    public CustomLinkedList<Product> getOutOfStock() {
+        return copy(outOfStock);
+    }
+
+    // Products with stock at or below the threshold in ascending ID order; O(k).
+    public CustomLinkedList<Product> getLowStock() {
+        return copy(lowStock);
+    }
+
+    // Live views for query planning, in ascending ID order (weakly consistent).
+    Iterator<Product> outOfStockIterator() {
+        return outOfStock.values().iterator();
+    }
+
+    Iterator<Product> lowStockIterator() {
+        return lowStock.values().iterator();
+    }
+
+    public int outOfStockCount() {
+        return outOfStock.size();
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    // Changes the threshold and rebuilds the low-stock set from products (O(n)).
+    public void setThreshold(int threshold, CustomLinkedList<Product> products) {
+        this.threshold = threshold;
+        lowStock.clear();
+        for (Product p : products) {
+            if (p.getStockListener() == this) reconcile(p);
+        }
+    }
+
+    private static CustomLinkedList<Product> copy(ConcurrentSkipListMap<Integer, Product> set) {
+        CustomLinkedList<Product> list = new CustomLinkedList<>();
+        for (Product p : set.values()) {
+            list.add(p);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,7 @@
+package project;
+
+// Receives every applied stock change of a Product (called on the mutating thread).
+public interface StockListener {
+
+    void stockChanged(Product product, int oldStock, int newStock);
+}
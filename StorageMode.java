@@ -0,0 +1,9 @@
+package project;
+
+// Selects the EntityStore implementation ECommerceSystem uses for its entity trees.
+public enum StorageMode {
+    BST,            // Plain BST, single-threaded use only
+    LOCKED_BST,     // ConcurrentBST, one read-write lock per tree
+    SKIP_LIST,      // SkipListStore, lock-free
+    DISK_CACHE      // Products/customers in DiskBackedStores (data file + LRU cache)
+}
@@ -0,0 +1,51 @@
+package project;
+
+// One LatencyHistogram per Operation; recording is lock-free.
+public class SystemMetrics {
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+
+    public SystemMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    // Records the time elapsed since startNanos (a System.nanoTime() value).
+    public void record(Operation op, long startNanos) {
+        histograms[op.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    public LatencyHistogram get(Operation op) {
+        return histograms[op.ordinal()];
+    }
+
+    public void reset() {
+        for (LatencyHistogram h : histograms) {
+            h.reset();
+        }
+    }
+
+    // Gauges from entity counts only (e.g. summed over shards): no heights or cache stats.
+    public MetricsSnapshot snapshot(int productCount, int customerCount, int orderCount) {
+        return new MetricsSnapshot(histograms, productCount, -1, customerCount, -1, orderCount, -1, null, null);
+    }
+
+    public MetricsSnapshot snapshot(EntityStore<?> products, EntityStore<?> customers, EntityStore<?> orders) {
+        return new MetricsSnapshot(histograms,
+                products.size(), heightOf(products),
+                customers.size(), heightOf(customers),
+                orders.size(), heightOf(orders),
+                cacheStatsOf(products), cacheStatsOf(customers));
+    }
+    
+    // Cache counters for disk-backed stores, null for in-memory ones.
+    private static CacheStats cacheStatsOf(EntityStore<?> store) {
+        return store instanceof DiskBackedStore ? ((DiskBackedStore<?>) store).getCacheStats() : null;
+    }
+
+    // Tree height for BST-backed stores, -1 for stores that are not trees.
+    private static int heightOf(EntityStore<?> store) {
+        return store instanceof BST ? ((BST<?>) store).height() : -1;
+    }
+}
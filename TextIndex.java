@@ -0,0 +1,264 @@
+package project;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over one text field (product names or review comments).
+ * Each document has an int ID, the product it belongs to (its group) and an optional
+ * 1-5 rating; the index keeps per-product rating sums so ranking never has to load
+ * a product or its reviews.
+ *
+ * - Text is split on anything that is not a letter or digit and lowercased.
+ * - The term dictionary is sorted, so a prefix query is one sub-map walk.
+ * - A posting is one long: doc ID, doc version and term frequency. Re-indexing or
+ *   removing a document bumps its version instead of searching the postings; stale
+ *   entries are skipped by version check (only for terms that have any) and purged
+ *   once they make up half of a term's postings.
+ *
+ * Reads share a read-write lock and never modify the index; updates take the write lock.
+ * Loaders build a fresh index with a Builder instead, which needs neither.
+ */
+public class TextIndex {
+
+    private static final int VERSION_BITS = 24;
+    private static final int VERSION_MASK = (1 << VERSION_BITS) - 1;
+    private static final int MAX_TF = 0xFF;
+
+    // Receives each live match of a term: the document, its product and the term frequency.
+    public interface MatchVisitor {
+        void visit(int doc, int group, int tf);
+    }
+
+    private static final class Postings {
+        final String term;
+        long[] entries = new long[2]; // doc << 32 | version << 8 | tf
+        int[] groups = new int[2];    // Group of each entry's document
+        int size;
+        int stale; // Entries whose document was re-indexed or removed since
+
+        Postings(String term) {
+            this.term = term;
+        }
+    }
+
+    private static final class Doc {
+        final int group;
+        final int rating;
+        final Postings[] terms;
+
+        Doc(int group, int rating, Postings[] terms) {
+            this.group = group;
+            this.rating = rating;
+            this.terms = terms;
+        }
+    }
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final HashMap<Integer, Doc> docs = new HashMap<>();
+    private final IntLongHashMap versions = new IntLongHashMap(); // Doc -> current version
+    private final IntLongHashMap ratings = new IntLongHashMap();  // Group -> sum << 32 | count
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexes text as document doc of group (replacing any earlier version of doc).
+     * rating is 1-5, or 0 if the document is unrated.
+     */
+    public void index(int doc, int group, int rating, String text) {
+        String[] tokens = tokenize(text);
+        lock.writeLock().lock();
+        try {
+            addLocked(doc, group, rating, tokens, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Indexes tokens as doc, taking postings from dictionary (caller holds the write lock).
+    private void addLocked(int doc, int group, int rating, String[] tokens, Map<String, Postings> dictionary) {
+        removeLocked(doc);
+        long version = versions.add(doc, 1) & VERSION_MASK;
+        Arrays.sort(tokens); // Equal terms become runs: run length = term frequency
+        int distinct = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            if (i == 0 || !tokens[i].equals(tokens[i - 1])) distinct++;
+        }
+        Postings[] docTerms = new Postings[distinct];
+        int n = 0;
+        for (int i = 0; i < tokens.length; ) {
+            int j = i + 1;
+            while (j < tokens.length && tokens[j].equals(tokens[i])) j++;
+            Postings p = dictionary.computeIfAbsent(tokens[i], Postings::new);
+            if (p.size == p.entries.length) {
+                p.entries = Arrays.copyOf(p.entries, p.size * 2);
+                p.groups = Arrays.copyOf(p.groups, p.size * 2);
+            }
+            p.entries[p.size] = ((long) doc << 32) | (version << 8) | Math.min(j - i, MAX_TF);
+            p.groups[p.size++] = group;
+            docTerms[n++] = p;
+            i = j;
+        }
+        docs.put(doc, new Doc(group, rating, docTerms));
+        if (rating > 0) ratings.add(group, ((long) rating << 32) | 1);
+    }
+
+    /**
+     * Fills a new index without locking and with a hash dictionary, so no document pays
+     * for a sorted-map lookup per term; build() sorts the terms once. A doc added twice
+     * keeps its last text, as with repeated index() calls. Not thread-safe; publish the
+     * built index safely.
+     */
+    public static final class Builder {
+        private final TextIndex index = new TextIndex();
+        private final HashMap<String, Postings> dictionary = new HashMap<>();
+
+        public void add(int doc, int group, int rating, String text) {
+            index.addLocked(doc, group, rating, tokenize(text), dictionary);
+        }
+
+        public TextIndex build() {
+            Postings[] sorted = dictionary.values().toArray(new Postings[0]);
+            dictionary.clear();
+            Arrays.sort(sorted, (a, b) -> a.term.compareTo(b.term));
+            for (Postings p : sorted) {
+                if (p.size > 0) index.terms.put(p.term, p); // Empty once every doc using it was replaced
+            }
+            return index;
+        }
+    }
+
+    public void remove(int doc) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int doc) {
+        Doc old = docs.remove(doc);
+        if (old == null) return;
+        versions.add(doc, 1);
+        for (Postings p : old.terms) {
+            if (++p.stale * 2 >= p.size) purge(p);
+        }
+        if (old.rating > 0) ratings.add(old.group, -(((long) old.rating << 32) | 1));
+    }
+
+    // Drops the stale entries of p (caller holds the write lock).
+    private void purge(Postings p) {
+        int n = 0;
+        for (int i = 0; i < p.size; i++) {
+            if (!isLive(p.entries[i])) continue;
+            p.entries[n] = p.entries[i];
+            p.groups[n++] = p.groups[i];
+        }
+        p.size = n;
+        p.stale = 0;
+        if (n == 0) {
+            terms.remove(p.term);
+        } else if (n < p.entries.length / 4) {
+            p.entries = Arrays.copyOf(p.entries, n * 2);
+            p.groups = Arrays.copyOf(p.groups, n * 2);
+        }
+    }
+
+    private boolean isLive(long entry) {
+        int doc = (int) (entry >>> 32);
+        return docs.containsKey(doc) && ((versions.get(doc) & VERSION_MASK) == ((entry >>> 8) & VERSION_MASK));
+    }
+
+    /**
+     * Visits every live document containing term (or, if prefix, any term starting with
+     * it). A document matching several expanded terms is visited once per term.
+     */
+    public void collect(String term, boolean prefix, MatchVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            if (!prefix) {
+                Postings p = terms.get(term);
+                if (p != null) visit(p, visitor);
+                return;
+            }
+            NavigableMap<String, Postings> range = terms.subMap(term, true, term + Character.MAX_VALUE, false);
+            for (Postings p : range.values()) visit(p, visitor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void visit(Postings p, MatchVisitor visitor) {
+        long[] entries = p.entries;
+        int[] groups = p.groups;
+        boolean check = p.stale > 0;
+        for (int i = 0; i < p.size; i++) {
+            long e = entries[i];
+            if (check && !isLive(e)) continue;
+            visitor.visit((int) (e >>> 32), groups[i], (int) e & MAX_TF);
+        }
+    }
+
+    // Average rating of the documents in group, or 0 if none is rated.
+    public double averageRating(int group) {
+        lock.readLock().lock();
+        try {
+            long stats = ratings.get(group);
+            int count = stats < 0 ? 0 : (int) stats;
+            return count == 0 ? 0.0 : (double) (stats >>> 32) / count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(int doc) {
+        lock.readLock().lock();
+        try {
+            return docs.containsKey(doc);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Lowercased runs of letters and digits.
+    public static String[] tokenize(String text) {
+        if (text == null) return new String[0];
+        String[] tokens = new String[8];
+        int n = 0;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                if (n == tokens.length) tokens = Arrays.copyOf(tokens, n * 2);
+                tokens[n++] = text.substring(start, i).toLowerCase(Locale.ROOT);
+                start = -1;
+            }
+        }
+        return Arrays.copyOf(tokens, n);
+    }
+}
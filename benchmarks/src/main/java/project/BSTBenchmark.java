@@ -0,0 +1,68 @@
+package project;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * BST insert/find/delete with random versus sorted keys.
+ * Sorted keys (the order saveXToCSV writes) degenerate the unbalanced tree into a list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BSTBenchmark {
+
+    public enum KeyOrder { RANDOM, SORTED }
+
+    // Kept modest: the recursive BST overflows the stack on very deep sorted trees
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED"})
+    public KeyOrder keyOrder;
+
+    private int[] keys;
+    private BST<Integer> tree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = BenchmarkData.keys(size, keyOrder == KeyOrder.SORTED, 42);
+        tree = new BST<>();
+        for (int k : keys) tree.insert(k, k);
+    }
+
+    // Builds a whole tree; reported time is per tree of `size` keys.
+    @Benchmark
+    public BST<Integer> insertAll() {
+        BST<Integer> t = new BST<>();
+        for (int k : keys) t.insert(k, k);
+        return t;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public int find() {
+        int hits = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (tree.find(keys[i % keys.length]) != null) hits++;
+        }
+        return hits;
+    }
+
+    // Delete then re-insert the same key so the tree shape stays stable between calls.
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public boolean deleteAndReinsert() {
+        boolean ok = true;
+        for (int i = 0; i < 1000; i++) {
+            int k = keys[i % keys.length];
+            ok &= tree.delete(k);
+            tree.insert(k, k);
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,54 @@
+package project;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+// Deterministic keys and CSV fixtures shared by the benchmarks.
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    // Distinct keys 1..n, shuffled unless sorted is requested.
+    static int[] keys(int n, boolean sorted, long seed) {
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) keys[i] = i + 1;
+        if (!sorted) {
+            Random rnd = new Random(seed);
+            for (int i = n - 1; i > 0; i--) {
+                int j = rnd.nextInt(i + 1);
+                int t = keys[i];
+                keys[i] = keys[j];
+                keys[j] = t;
+            }
+        }
+        return keys;
+    }
+
+    // Writes products/customers/orders/reviews CSVs with `rows` rows each into dir.
+    static void writeCsvFiles(File dir, int rows, long seed) throws IOException {
+        new DataGenerator(seed).generate(dir, rows, rows, rows, rows);
+    }
+
+    static File tempDir(String prefix) throws IOException {
+        File dir = File.createTempFile(prefix, "");
+        if (!dir.delete() || !dir.mkdir()) throw new IOException("Cannot create " + dir);
+        return dir;
+    }
+
+    static void deleteDir(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) f.delete();
+        }
+        dir.delete();
+    }
+
+    // A silent system so benchmarks measure the operation, not logging.
+    static ECommerceSystem quietSystem() {
+        ECommerceSystem system = new ECommerceSystem();
+        system.setLogSink((level, message) -> { });
+        return system;
+    }
+}
@@ -0,0 +1,112 @@
+package project;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// CSV parsing plus every load*FromCSV / save*ToCSV at 10k and 1M rows.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xss16m"})
+@State(Scope.Benchmark)
+public class CsvBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private File dataDir;
+    private File outDir;
+    private ECommerceSystem loaded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = BenchmarkData.tempDir("bench-data");
+        outDir = BenchmarkData.tempDir("bench-out");
+        BenchmarkData.writeCsvFiles(dataDir, rows, 7);
+        loaded = BenchmarkData.quietSystem();
+        loaded.loadAllFromCSV(path("products.csv"), path("customers.csv"), path("orders.csv"), path("reviews.csv"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkData.deleteDir(dataDir);
+        BenchmarkData.deleteDir(outDir);
+    }
+
+    private String path(String name) {
+        return new File(dataDir, name).getPath();
+    }
+
+    private String out(String name) {
+        return new File(outDir, name).getPath();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public String[] parseCSVLine() {
+        return ECommerceSystem.parseCSVLine("42,\"Wireless Mouse, Black\",19.99,120");
+    }
+
+    @Benchmark
+    public LoadReport loadProducts() {
+        return BenchmarkData.quietSystem().loadProductsFromCSV(path("products.csv"));
+    }
+
+    @Benchmark
+    public LoadReport loadCustomers() {
+        return BenchmarkData.quietSystem().loadCustomersFromCSV(path("customers.csv"));
+    }
+
+    /**
+     * Orders and reviews link into customers/products, so each measured load gets a
+     * freshly loaded system (built untimed) instead of growing histories across iterations.
+     */
+    @State(Scope.Benchmark)
+    public static class FreshSystem {
+        ECommerceSystem system;
+
+        @Setup(Level.Iteration)
+        public void setUp(CsvBenchmark bench) {
+            system = BenchmarkData.quietSystem();
+            system.loadProductsFromCSV(bench.path("products.csv"));
+            system.loadCustomersFromCSV(bench.path("customers.csv"));
+        }
+    }
+
+    @Benchmark
+    public LoadReport loadOrders(FreshSystem fresh) {
+        return fresh.system.loadOrdersFromCSV(path("orders.csv"));
+    }
+
+    @Benchmark
+    public LoadReport loadReviews(FreshSystem fresh) {
+        return fresh.system.loadReviewsFromCSV(path("reviews.csv"));
+    }
+
+    @Benchmark
+    public boolean saveProducts() {
+        return loaded.saveProductsToCSV(out("products.csv"));
+    }
+
+    @Benchmark
+    public boolean saveCustomers() {
+        return loaded.saveCustomersToCSV(out("customers.csv"));
+    }
+
+    @Benchmark
+    public boolean saveOrders() {
+        return loaded.saveOrdersToCSV(out("orders.csv"));
+    }
+
+    @Benchmark
+    public boolean saveReviews() {
+        return loaded.saveReviewsToCSV(out("reviews.csv"));
+    }
+}
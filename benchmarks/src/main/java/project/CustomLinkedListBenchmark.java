@@ -0,0 +1,50 @@
+package project;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// CustomLinkedList append, indexed access and iteration.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CustomLinkedListBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private CustomLinkedList<Integer> list;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = new CustomLinkedList<>();
+        for (int i = 0; i < size; i++) list.add(i);
+    }
+
+    @Benchmark
+    public CustomLinkedList<Integer> addAll() {
+        CustomLinkedList<Integer> l = new CustomLinkedList<>();
+        for (int i = 0; i < size; i++) l.add(i);
+        return l;
+    }
+
+    // The get(i) loop pattern used throughout ECommerceSystem: O(n^2) per pass.
+    @Benchmark
+    public void indexedLoop(Blackhole bh) {
+        for (int i = 0; i < list.size(); i++) bh.consume(list.get(i));
+    }
+
+    @Benchmark
+    public void iterate(Blackhole bh) {
+        for (Integer v : list) bh.consume(v);
+    }
+
+    @Benchmark
+    public Integer getMiddle() {
+        return list.get(size / 2);
+    }
+}
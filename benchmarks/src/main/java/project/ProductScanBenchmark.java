@@ -0,0 +1,51 @@
+package project;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Out-of-stock and price-range scans over heap Products versus the off-heap
+ * ProductColumns layout (setOffHeapProducts).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductScanBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean offHeap;
+
+    private ECommerceSystem system;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File dir = BenchmarkData.tempDir("bench-scan");
+        try {
+            new DataGenerator(13).generate(dir, rows, 1, 0, 0);
+            system = BenchmarkData.quietSystem();
+            system.setOffHeapProducts(offHeap);
+            system.loadProductsFromCSV(new File(dir, "products.csv").getPath());
+        } finally {
+            BenchmarkData.deleteDir(dir);
+        }
+    }
+
+    @Benchmark
+    public CustomLinkedList<Product> outOfStockProducts() {
+        return system.getOutOfStockProducts();
+    }
+
+    @Benchmark
+    public CustomLinkedList<Product> productsInPriceRange() {
+        return system.getProductsInPriceRange(100.0, 110.0);
+    }
+}
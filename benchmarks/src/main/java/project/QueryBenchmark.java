@@ -0,0 +1,85 @@
+package project;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Every advanced query on ECommerceSystem over a loaded dataset.
+ * Sizes stay small because several queries are still quadratic or worse.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+
+    @Param({"1000"})
+    public int rows;
+
+    private ECommerceSystem system;
+    private int probeId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File dir = BenchmarkData.tempDir("bench-query");
+        try {
+            BenchmarkData.writeCsvFiles(dir, rows, 11);
+            system = BenchmarkData.quietSystem();
+            system.loadAllFromCSV(new File(dir, "products.csv").getPath(), new File(dir, "customers.csv").getPath(),
+                    new File(dir, "orders.csv").getPath(), new File(dir, "reviews.csv").getPath());
+        } finally {
+            BenchmarkData.deleteDir(dir);
+        }
+        probeId = rows / 2;
+    }
+
+    @Benchmark
+    public Product findProductById() {
+        return system.findProductById(probeId);
+    }
+
+    @Benchmark
+    public CustomLinkedList<Product> productsInPriceRange() {
+        return system.getProductsInPriceRange(100.0, 200.0);
+    }
+
+    @Benchmark
+    public CustomLinkedList<Product> outOfStockProducts() {
+        return system.getOutOfStockProducts();
+    }
+
+    @Benchmark
+    public CustomLinkedList<Customer> customersSortedByName() {
+        return system.getCustomersSortedByName();
+    }
+
+    @Benchmark
+    public CustomLinkedList<Customer> customersWhoReviewedProduct() {
+        return system.getCustomersWhoReviewedProduct(probeId);
+    }
+
+    @Benchmark
+    public CustomLinkedList<Product> top3ProductsByRating() {
+        return system.getTop3ProductsByRating();
+    }
+
+    @Benchmark
+    public CustomLinkedList<Order> ordersBetweenDates() {
+        return system.getOrdersBetweenDates("2024-03-01", "2024-05-31");
+    }
+
+    @Benchmark
+    public CustomLinkedList<Review> reviewsByCustomer() {
+        return system.getReviewsByCustomer(probeId);
+    }
+
+    @Benchmark
+    public CustomLinkedList<Product> commonHighRatedProducts() {
+        return system.getCommonHighRatedProducts(probeId, probeId + 1);
+    }
+}
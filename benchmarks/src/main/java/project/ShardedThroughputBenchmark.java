@@ -0,0 +1,83 @@
+package project;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Point reads and writes on a ShardedECommerceSystem, driven by one thread and by one
+ * thread per core. With every core driving it, throughput should grow with the shard
+ * count up to the core count, since each shard's worker serves its own keys; the
+ * one-thread runs are the baseline, bounded by a single mailbox round trip per call.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShardedThroughputBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ShardedECommerceSystem system;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File dir = BenchmarkData.tempDir("bench-sharded");
+        try {
+            BenchmarkData.writeCsvFiles(dir, rows, 13);
+            system = new ShardedECommerceSystem(shards);
+            system.setLogSink((level, message) -> { });
+            system.loadAllFromCSV(new File(dir, "products.csv").getPath(), new File(dir, "customers.csv").getPath(),
+                    new File(dir, "orders.csv").getPath());
+        } finally {
+            BenchmarkData.deleteDir(dir);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        system.close();
+    }
+
+    private int randomId() {
+        return 1 + ThreadLocalRandom.current().nextInt(rows);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Product findProductOneThread() {
+        return system.findProductById(randomId());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Product findProductAllCores() {
+        return system.findProductById(randomId());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean updateProductOneThread() {
+        return updateProduct();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean updateProductAllCores() {
+        return updateProduct();
+    }
+
+    private boolean updateProduct() {
+        int id = randomId();
+        return system.updateProduct(id, "Product " + id, 10.0, 100);
+    }
+}